@@ -0,0 +1,26 @@
+package com.spring.bank.config;
+
+import com.spring.bank.repository.shard.ShardRouter;
+import com.spring.bank.repository.storage.H2StorageMaintenance;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Paths;
+
+/**
+ * Checkpoints and online backups of the file-backed H2 databases of the durable profile.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bank.storage.durable", havingValue = "true")
+public class DurableStorageConfiguration {
+
+    @Bean
+    public H2StorageMaintenance h2StorageMaintenance(JdbcTemplate jdbcTemplate, ShardRouter shardRouter,
+                                                     @Value("${bank.storage.backup-dir}") String backupDirectory,
+                                                     @Value("${bank.storage.backups-to-keep}") int backupsToKeep) {
+        return new H2StorageMaintenance(jdbcTemplate, shardRouter, Paths.get(backupDirectory), backupsToKeep);
+    }
+}
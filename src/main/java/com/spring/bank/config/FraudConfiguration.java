@@ -0,0 +1,9 @@
+package com.spring.bank.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FraudProperties.class)
+public class FraudConfiguration {
+}
@@ -0,0 +1,99 @@
+package com.spring.bank.config;
+
+import com.spring.bank.model.TimeFrame;
+import com.spring.bank.service.fraud.RuleAction;
+import com.spring.bank.service.fraud.RuleScope;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "bank.fraud")
+public class FraudProperties {
+
+    /**
+     * Number of buckets of every sliding window, the resolution of a window is its length divided by this.
+     */
+    private int buckets = 60;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(int buckets) {
+        this.buckets = buckets;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    public static class Rule {
+
+        private String name;
+        private RuleScope scope = RuleScope.ACCOUNT;
+        private TimeFrame timeFrame = TimeFrame.MINUTES;
+        private Long maxCount;
+        /**
+         * Limit on the sum of the amounts, in the currency of the account; counterparty rules sum every currency
+         * separately and apply the same limit to each.
+         */
+        private BigDecimal maxAmount;
+        private RuleAction action = RuleAction.REJECT;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public RuleScope getScope() {
+            return scope;
+        }
+
+        public void setScope(RuleScope scope) {
+            this.scope = scope;
+        }
+
+        public TimeFrame getTimeFrame() {
+            return timeFrame;
+        }
+
+        public void setTimeFrame(TimeFrame timeFrame) {
+            this.timeFrame = timeFrame;
+        }
+
+        public Long getMaxCount() {
+            return maxCount;
+        }
+
+        public void setMaxCount(Long maxCount) {
+            this.maxCount = maxCount;
+        }
+
+        public BigDecimal getMaxAmount() {
+            return maxAmount;
+        }
+
+        public void setMaxAmount(BigDecimal maxAmount) {
+            this.maxAmount = maxAmount;
+        }
+
+        public RuleAction getAction() {
+            return action;
+        }
+
+        public void setAction(RuleAction action) {
+            this.action = action;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.spring.bank.config;
+
+import com.spring.bank.model.Currency;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "bank.interest")
+public class InterestProperties {
+
+    /**
+     * Annual interest rate per currency in basis points (1/100 of a percent), accounts in other currencies earn none.
+     */
+    private Map<Currency, Integer> annualRateBasisPoints = new EnumMap<>(Currency.class);
+
+    /**
+     * Partitions per shard, 0 uses one per available core.
+     */
+    private int partitions;
+
+    /**
+     * Accounts read, computed and written back per database transaction.
+     */
+    private int chunkSize = 5000;
+
+    public Map<Currency, Integer> getAnnualRateBasisPoints() {
+        return annualRateBasisPoints;
+    }
+
+    public void setAnnualRateBasisPoints(Map<Currency, Integer> annualRateBasisPoints) {
+        this.annualRateBasisPoints = annualRateBasisPoints;
+    }
+
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
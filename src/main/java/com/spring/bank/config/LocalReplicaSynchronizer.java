@@ -0,0 +1,100 @@
+package com.spring.bank.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a second, local H2 instance in sync with the primary one, standing in for asynchronous replication in
+ * development. The schema of the primary is copied once with {@code SCRIPT NODATA}; afterwards every sync interval
+ * replaces the rows of every table of the replica in one replica transaction, so readers never see a half applied
+ * copy and the replica lags behind by up to one interval. The start time of the last applied copy is kept in
+ * {@value #STATUS_TABLE}, which the lag query reads.
+ * <p>
+ * Every run copies all the rows, which only suits the small data sets of a local setup.
+ */
+public class LocalReplicaSynchronizer {
+
+    private static Logger logger = LoggerFactory.getLogger(LocalReplicaSynchronizer.class);
+
+    static final String STATUS_TABLE = "replication_status";
+
+    private JdbcTemplate primaryJdbcTemplate;
+    private JdbcTemplate replicaJdbcTemplate;
+    private TransactionTemplate replicaTransactionTemplate;
+    private List<String> tables = Collections.emptyList();
+
+    public LocalReplicaSynchronizer(DataSource primaryDataSource, DataSource replicaDataSource) {
+        this.primaryJdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaTransactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(replicaDataSource));
+    }
+
+    /**
+     * Runs once the schema has been created on the primary, before the application starts serving reads, and then
+     * every sync interval.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    @Scheduled(fixedDelayString = "${bank.datasource.routing.local-replica.sync-interval}")
+    public synchronized void synchronize() {
+        if (tables.isEmpty()) {
+            copySchema();
+        }
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        replicaTransactionTemplate.executeWithoutResult(status -> {
+            for (String table : tables) {
+                copyRows(table);
+            }
+            replicaJdbcTemplate.update("update " + STATUS_TABLE + " set synced_at = ?", Timestamp.valueOf(startedAt));
+        });
+        logger.debug("Synchronized the replica in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void copySchema() {
+        List<String> statements = primaryJdbcTemplate.queryForList("script nodata nopasswords", String.class);
+        replicaJdbcTemplate.execute("drop all objects");
+        // rows are replaced table by table, the primary already enforced the constraints
+        replicaJdbcTemplate.execute("set referential_integrity false");
+        for (String statement : statements) {
+            if (!statement.startsWith("--")) {
+                replicaJdbcTemplate.execute(statement);
+            }
+        }
+        replicaJdbcTemplate.execute("create table " + STATUS_TABLE + " (synced_at timestamp)");
+        // no lag can be measured until the first copy is applied, reads stay on the primary meanwhile
+        replicaJdbcTemplate.update("insert into " + STATUS_TABLE + " values (null)");
+        tables = primaryJdbcTemplate.queryForList("select table_name from information_schema.tables " +
+                "where table_schema = 'PUBLIC' and table_type = 'TABLE'", String.class);
+        logger.info("Copied the schema of {} tables to the replica", tables.size());
+    }
+
+    private void copyRows(String table) {
+        List<Object[]> rows = primaryJdbcTemplate.query("select * from " + table, (rs, rowNum) -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            Object[] row = new Object[metaData.getColumnCount()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = rs.getObject(i + 1);
+            }
+            return row;
+        });
+        replicaJdbcTemplate.update("delete from " + table);
+        if (!rows.isEmpty()) {
+            String placeholders = String.join(", ", Collections.nCopies(rows.get(0).length, "?"));
+            replicaJdbcTemplate.batchUpdate("insert into " + table + " values (" + placeholders + ")", rows);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.spring.bank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Replaces the single auto-configured datasource by a primary and a replica pool when
+ * {@code bank.datasource.routing.enabled} is set. See {@link ReadWriteRoutingDataSource} for the routing rules.
+ * Both this and {@link ShardingConfiguration} would replace the datasource, so the two cannot be enabled together.
+ */
+@Configuration
+@ConditionalOnProperty(name = "bank.datasource.routing.enabled", havingValue = "true")
+public class ReadWriteDataSourceConfiguration {
+
+    public ReadWriteDataSourceConfiguration(@Value("${bank.sharding.enabled:false}") boolean shardingEnabled) {
+        if (shardingEnabled) {
+            throw new IllegalStateException("bank.datasource.routing.enabled cannot be combined with bank.sharding.enabled, " +
+                    "disable one of them");
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("bank.datasource.primary")
+    public HikariDataSource primaryDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("bank.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        return DataSourceBuilder.create().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${bank.datasource.routing.lag-query}") String lagQuery,
+                                               @Value("${bank.datasource.routing.max-lag}") Duration maxLag) {
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLag);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bank.datasource.routing.local-replica.enabled", havingValue = "true")
+    public LocalReplicaSynchronizer localReplicaSynchronizer(@Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+                                                             @Qualifier("replicaDataSource") HikariDataSource replicaDataSource) {
+        // the replica pool is read-only, the copy is applied through a connection of its own
+        DataSource replicaWriter = new DriverManagerDataSource(replicaDataSource.getJdbcUrl(),
+                replicaDataSource.getUsername(), replicaDataSource.getPassword());
+        return new LocalReplicaSynchronizer(primaryDataSource, replicaWriter);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@Value("${bank.datasource.routing.read-your-writes-window}") Duration window) {
+        return new ReadYourWritesTracker(window);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(replicaLagMonitor, readYourWritesTracker);
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(ReadWriteRoutingDataSource.Route.PRIMARY, primaryDataSource);
+        targetDataSources.put(ReadWriteRoutingDataSource.Route.REPLICA, replicaDataSource);
+        routingDataSource.setTargetDataSources(targetDataSources);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,59 @@
+package com.spring.bank.config;
+
+import com.spring.bank.repository.AccountContext;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary. An account that has just been
+ * written by a committed transaction keeps being read from the primary for the stickiness window, whichever client
+ * reads it (writes and reads use different OAuth clients), and all reads fall back to the primary while the replica
+ * lags more than tolerated.
+ * <p>
+ * Must be wrapped in a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, as the
+ * read-only flag of a transaction is only known after the transaction manager asked for its connection.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private ReplicaLagMonitor replicaLagMonitor;
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    public ReadWriteRoutingDataSource(ReplicaLagMonitor replicaLagMonitor, ReadYourWritesTracker readYourWritesTracker) {
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long accountId = AccountContext.currentAccount();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite(accountId);
+            return Route.PRIMARY;
+        }
+        if (accountId != null && readYourWritesTracker.isSticky(accountId)) {
+            return Route.PRIMARY;
+        }
+        return replicaLagMonitor.isWithinTolerance() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    private void trackWrite(Long accountId) {
+        if (accountId == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readYourWritesTracker.recordWrite(accountId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                readYourWritesTracker.recordWrite(accountId);
+            }
+        });
+    }
+}
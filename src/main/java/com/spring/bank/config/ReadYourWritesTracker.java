@@ -0,0 +1,45 @@
+package com.spring.bank.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers when each account was last written by a committed transaction, so that its reads stay on the primary
+ * until the replica has had time to catch up.
+ */
+public class ReadYourWritesTracker {
+
+    private static final int EVICTION_INTERVAL = 1024;
+
+    private Map<Long, Long> lastWriteNanos = new ConcurrentHashMap<>();
+    private long stickinessNanos;
+    private AtomicInteger writesSinceEviction = new AtomicInteger();
+
+    public ReadYourWritesTracker(Duration stickiness) {
+        this.stickinessNanos = stickiness.toNanos();
+    }
+
+    public void recordWrite(long accountId) {
+        long now = System.nanoTime();
+        lastWriteNanos.put(accountId, now);
+        // accounts that are written but not read again would otherwise stay forever
+        if (writesSinceEviction.incrementAndGet() >= EVICTION_INTERVAL) {
+            writesSinceEviction.set(0);
+            lastWriteNanos.values().removeIf(lastWrite -> now - lastWrite >= stickinessNanos);
+        }
+    }
+
+    public boolean isSticky(long accountId) {
+        Long lastWrite = lastWriteNanos.get(accountId);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWrite < stickinessNanos) {
+            return true;
+        }
+        lastWriteNanos.remove(accountId, lastWrite);
+        return false;
+    }
+}
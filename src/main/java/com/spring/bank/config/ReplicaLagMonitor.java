@@ -0,0 +1,56 @@
+package com.spring.bank.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the replica is behind the primary. The lag query must return the lag in
+ * seconds; without one (e.g. two local H2 instances) the replica is always considered fresh.
+ */
+public class ReplicaLagMonitor {
+
+    private static Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private JdbcTemplate replicaJdbcTemplate;
+    private String lagQuery;
+    private Duration maxLag;
+    private volatile boolean withinTolerance = true;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, Duration maxLag) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.datasource.routing.lag-check-interval}")
+    public void checkLag() {
+        if (!StringUtils.hasText(lagQuery)) {
+            return;
+        }
+        boolean fresh;
+        try {
+            BigDecimal lagSeconds = replicaJdbcTemplate.queryForObject(lagQuery, BigDecimal.class);
+            fresh = lagSeconds != null && lagSeconds.movePointRight(3).longValue() <= maxLag.toMillis();
+        } catch (DataAccessException e) {
+            logger.warn("Could not measure replica lag, routing reads to the primary", e);
+            fresh = false;
+        }
+        if (fresh != withinTolerance) {
+            logger.info("Replica lag is {} the tolerance of {}, routing reads to the {}",
+                    fresh ? "back within" : "above", maxLag, fresh ? "replica" : "primary");
+        }
+        withinTolerance = fresh;
+    }
+
+    public boolean isWithinTolerance() {
+        return withinTolerance;
+    }
+}
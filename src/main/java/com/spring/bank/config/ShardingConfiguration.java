@@ -0,0 +1,85 @@
+package com.spring.bank.config;
+
+import com.spring.bank.repository.shard.ShardRouter;
+import com.spring.bank.repository.shard.ShardRoutingDataSource;
+import com.spring.bank.repository.shard.ShardSchemaInitializer;
+import com.spring.bank.repository.shard.ShardTemplate;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Accounts and their transactions are spread over the datasources listed in {@code bank.sharding.datasources}
+ * when {@code bank.sharding.enabled} is set, with snowflake ids written as strings in JSON; otherwise the single
+ * auto-configured datasource is the only shard.
+ * Cannot be combined with the read/write split of {@link ReadWriteDataSourceConfiguration}, which refuses to start
+ * when both are enabled.
+ */
+@Configuration
+public class ShardingConfiguration {
+
+    private static final String SHARDS_PROPERTY = "bank.sharding.datasources";
+
+    @Bean
+    public ShardRouter shardRouter(Environment environment,
+                                   @Value("${bank.sharding.enabled}") boolean shardingEnabled,
+                                   @Value("${bank.sharding.virtual-nodes}") int virtualNodes) {
+        int shardCount = shardingEnabled ? shardConfigurations(environment).size() : 1;
+        return new ShardRouter(shardCount, virtualNodes);
+    }
+
+    @Bean
+    public ShardTemplate shardTemplate(ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        return new ShardTemplate(shardRouter, transactionManager);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bank.sharding.enabled", havingValue = "true")
+    public ShardRoutingDataSource shardRoutingDataSource(Environment environment) {
+        List<HikariDataSource> shards = shardConfigurations(environment).stream()
+                .map(HikariDataSource::new)
+                .collect(Collectors.toList());
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "bank.sharding.enabled", havingValue = "true")
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bank.sharding.enabled", havingValue = "true")
+    public StringIdModule stringIdModule() {
+        return new StringIdModule();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "bank.sharding.copy-h2-schema", havingValue = "true")
+    public ShardSchemaInitializer shardSchemaInitializer(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                                                         ShardRouter shardRouter) {
+        // takes the entity manager factory so that Hibernate has created the schema on shard 0 first
+        return new ShardSchemaInitializer(dataSource, shardRouter.getShardCount());
+    }
+
+    private static List<HikariConfig> shardConfigurations(Environment environment) {
+        return Binder.get(environment)
+                .bind(SHARDS_PROPERTY, Bindable.listOf(HikariConfig.class))
+                .orElseThrow(() -> new IllegalStateException(SHARDS_PROPERTY + " must list at least one shard"));
+    }
+}
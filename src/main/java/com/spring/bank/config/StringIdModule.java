@@ -0,0 +1,35 @@
+package com.spring.bank.config;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.spring.bank.model.Account;
+import com.spring.bank.model.StandingOrder;
+import com.spring.bank.model.Transaction;
+
+/**
+ * Writes the ids of accounts, transactions and standing orders as strings. Registered when sharding is enabled:
+ * snowflake ids exceed the integers a JavaScript client can represent exactly, while the sequence ids of a single
+ * database stay numbers.
+ */
+public class StringIdModule extends SimpleModule {
+
+    public StringIdModule() {
+        super("StringIdModule");
+        setMixInAnnotation(Account.class, StringId.class);
+        setMixInAnnotation(Transaction.class, StringId.class);
+        setMixInAnnotation(StandingOrder.class, StringIdAndAccountId.class);
+    }
+
+    private abstract static class StringId {
+
+        @JsonSerialize(using = ToStringSerializer.class)
+        abstract long getId();
+    }
+
+    private abstract static class StringIdAndAccountId extends StringId {
+
+        @JsonSerialize(using = ToStringSerializer.class)
+        abstract long getAccountId();
+    }
+}
@@ -34,17 +34,21 @@ public class AccountController {
         addTransactions(account);
         account.setIban(generateIBAN());
         account.setBalance(account.getTransactions().stream()
-                .map(AccountController::getAmountBasedOnTransactionType)
+                .map(Transaction::getSignedAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add));
         return accountService.save(account);
     }
 
+    @GetMapping("/accounts")
+    public List<Account> getAccounts(@RequestParam(name = "customer") String customer) {
+        logger.info("Request to retrieve the accounts of customer : {} ", customer);
+        return accountService.findByCustomer(customer);
+    }
+
     @PutMapping("/accounts/{id}")
     public Account cancelAccount(@PathVariable Long id)  {
         logger.info("Request to close the account with id : {} ", id);
-        Account account = accountService.findById(id).orElseThrow(() -> new ResourceNotFoundException("Account with id " + id + " not found"));
-        account.setAccountStatus(AccountStatus.CLOSED);
-        return accountService.save(account);
+        return accountService.close(id).orElseThrow(() -> new ResourceNotFoundException("Account with id " + id + " not found"));
     }
 
     @GetMapping("/accounts/{id}/transactions")
@@ -54,6 +58,21 @@ public class AccountController {
         return transactionService.getTransactionsByCriteria(id, timeFrame.apply(interval));
     }
 
+    @PostMapping("/accounts/{id}/transactions")
+    public Transaction postTransaction(@PathVariable Long id, @Valid @RequestBody Transaction transaction) {
+        logger.info("Request to post a transaction on the account with id : {} ", id);
+        return transactionService.post(id, transaction);
+    }
+
+    @GetMapping("/accounts/{id}/transactions/search")
+    public List<Transaction> searchTransactions(@PathVariable Long id, @RequestParam(name = "q", required = false) String text,
+                                                @RequestParam(name = "minAmount", required = false) BigDecimal minAmount,
+                                                @RequestParam(name = "maxAmount", required = false) BigDecimal maxAmount,
+                                                @RequestParam(name = "type", required = false) TransactionType type) {
+        logger.info("Request to search the transactions of the account with id : {} ", id);
+        return transactionService.search(id, text, minAmount, maxAmount, type);
+    }
+
     private void addTransactions(Account account) {
         account.getTransactions().add(new Transaction(BigDecimal.TEN, TransactionType.CREDIT, "Ionescu Marius", "bank transfer", account));
         account.getTransactions().add(new Transaction(BigDecimal.ONE, TransactionType.DEBIT, "Ionescu Marius", "bank transfer", account));
@@ -62,11 +81,4 @@ public class AccountController {
     private String generateIBAN() {
         return RandomString.make();
     }
-
-    private static BigDecimal getAmountBasedOnTransactionType(Transaction transaction) {
-        if (TransactionType.DEBIT == transaction.getTransactionType()) {
-            return transaction.getAmount().negate();
-        }
-        return transaction.getAmount();
-    }
 }
@@ -0,0 +1,41 @@
+package com.spring.bank.controller;
+
+import com.spring.bank.model.StandingOrder;
+import com.spring.bank.service.StandingOrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/v1")
+public class StandingOrderController {
+
+    private static Logger logger = LoggerFactory.getLogger(StandingOrderController.class);
+
+    private StandingOrderService standingOrderService;
+
+    public StandingOrderController(StandingOrderService standingOrderService) {
+        this.standingOrderService = standingOrderService;
+    }
+
+    @PostMapping("/accounts/{id}/standing-orders")
+    public StandingOrder createStandingOrder(@PathVariable Long id, @Valid @RequestBody StandingOrder standingOrder) {
+        logger.info("Request to create a standing order on the account with id : {} ", id);
+        return standingOrderService.create(id, standingOrder);
+    }
+
+    @GetMapping("/accounts/{id}/standing-orders")
+    public List<StandingOrder> getStandingOrders(@PathVariable Long id) {
+        logger.info("Request to retrieve the standing orders of the account with id : {} ", id);
+        return standingOrderService.findByAccountId(id);
+    }
+
+    @PutMapping("/accounts/{id}/standing-orders/{standingOrderId}")
+    public StandingOrder cancelStandingOrder(@PathVariable Long id, @PathVariable Long standingOrderId) {
+        logger.info("Request to cancel the standing order with id : {} ", standingOrderId);
+        return standingOrderService.cancel(id, standingOrderId);
+    }
+}
@@ -0,0 +1,10 @@
+package com.spring.bank.exception;
+
+
+public class AccountClosedException extends RuntimeException{
+
+    public AccountClosedException(String message) {
+        super(message);
+    }
+
+}
@@ -34,5 +34,18 @@ public class GlobalExceptionHandler {
     public String handleResourceNotFoundExceptions(ResourceNotFoundException ex) {
         return ex.getMessage();
     }
-}
 
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    @ExceptionHandler(TransactionRejectedException.class)
+    @ResponseBody
+    public String handleTransactionRejectedExceptions(TransactionRejectedException ex) {
+        return ex.getMessage();
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(AccountClosedException.class)
+    @ResponseBody
+    public String handleAccountClosedExceptions(AccountClosedException ex) {
+        return ex.getMessage();
+    }
+}
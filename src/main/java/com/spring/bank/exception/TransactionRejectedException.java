@@ -0,0 +1,10 @@
+package com.spring.bank.exception;
+
+
+public class TransactionRejectedException extends RuntimeException{
+
+    public TransactionRejectedException(String message) {
+        super(message);
+    }
+
+}
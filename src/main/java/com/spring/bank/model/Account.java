@@ -1,6 +1,7 @@
 package com.spring.bank.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.GenericGenerator;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -14,12 +15,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "account")
+@Table(name = "account", indexes = @Index(name = "idx_account_status_modified",
+        columnList = "account_status, last_modified_date_time"))
 @EntityListeners(AuditingEntityListener.class)
 public class Account {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "account-id")
+    @GenericGenerator(name = "account-id", strategy = "com.spring.bank.repository.shard.ShardAwareIdGenerator")
     private long id;
 
     @Column(name = "customer", nullable = false)
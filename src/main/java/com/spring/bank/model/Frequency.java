@@ -0,0 +1,32 @@
+package com.spring.bank.model;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum Frequency {
+    ONCE(null), DAILY(ChronoUnit.DAYS), WEEKLY(ChronoUnit.WEEKS), MONTHLY(ChronoUnit.MONTHS);
+
+    private ChronoUnit unit;
+
+    Frequency(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Occurrences are counted from the first one rather than the previous one, so a monthly order starting on the
+     * 31st runs on the last day of the shorter months and on the 31st again afterwards.
+     *
+     * @return the first occurrence after the given time, null when there is none
+     */
+    public LocalDateTime next(LocalDateTime firstOccurrence, LocalDateTime after) {
+        if (unit == null) {
+            return null;
+        }
+        long count = Math.max(0, unit.between(firstOccurrence, after));
+        LocalDateTime next = firstOccurrence.plus(count, unit);
+        while (!next.isAfter(after)) {
+            next = firstOccurrence.plus(++count, unit);
+        }
+        return next;
+    }
+}
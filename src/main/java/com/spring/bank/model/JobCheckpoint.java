@@ -0,0 +1,108 @@
+package com.spring.bank.model;
+
+import org.hibernate.annotations.GenericGenerator;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Progress of one partition of a batch job run. The partition bounds are fixed by the first run of a date and
+ * the checkpoint is advanced in the same database transaction as the chunk it covers, so a restarted run resumes
+ * exactly after the last committed chunk.
+ */
+@Entity
+@Table(name = "job_checkpoint", uniqueConstraints = @UniqueConstraint(name = "uk_job_checkpoint",
+        columnNames = {"job_name", "run_date", "partition_index"}))
+public class JobCheckpoint {
+
+    @Id
+    @GeneratedValue(generator = "job-checkpoint-id")
+    @GenericGenerator(name = "job-checkpoint-id", strategy = "com.spring.bank.repository.shard.ShardAwareIdGenerator")
+    private long id;
+
+    @Column(name = "job_name", nullable = false)
+    private String jobName;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "partition_index", nullable = false)
+    private int partitionIndex;
+
+    @Column(name = "from_account_id", nullable = false)
+    private long fromAccountId;
+
+    @Column(name = "to_account_id", nullable = false)
+    private long toAccountId;
+
+    @Column(name = "last_account_id", nullable = false)
+    private long lastAccountId;
+
+    @Column(name = "last_modified_date_time")
+    private LocalDateTime lastModifiedDateTime;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public LocalDate getRunDate() {
+        return runDate;
+    }
+
+    public void setRunDate(LocalDate runDate) {
+        this.runDate = runDate;
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public void setPartitionIndex(int partitionIndex) {
+        this.partitionIndex = partitionIndex;
+    }
+
+    public long getFromAccountId() {
+        return fromAccountId;
+    }
+
+    public void setFromAccountId(long fromAccountId) {
+        this.fromAccountId = fromAccountId;
+    }
+
+    public long getToAccountId() {
+        return toAccountId;
+    }
+
+    public void setToAccountId(long toAccountId) {
+        this.toAccountId = toAccountId;
+    }
+
+    public long getLastAccountId() {
+        return lastAccountId;
+    }
+
+    public void setLastAccountId(long lastAccountId) {
+        this.lastAccountId = lastAccountId;
+    }
+
+    public LocalDateTime getLastModifiedDateTime() {
+        return lastModifiedDateTime;
+    }
+
+    public void setLastModifiedDateTime(LocalDateTime lastModifiedDateTime) {
+        this.lastModifiedDateTime = lastModifiedDateTime;
+    }
+}
@@ -0,0 +1,226 @@
+package com.spring.bank.model;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "standing_order", indexes = @Index(name = "idx_standing_order_due", columnList = "status, next_execution"))
+@EntityListeners(AuditingEntityListener.class)
+public class StandingOrder {
+
+    @Id
+    @GeneratedValue(generator = "standing-order-id")
+    @GenericGenerator(name = "standing-order-id", strategy = "com.spring.bank.repository.shard.ShardAwareIdGenerator")
+    private long id;
+
+    @Column(name = "account_id", nullable = false)
+    private long accountId;
+
+    @Column(name = "amount", nullable = false)
+    @NotNull(message = "Amount is mandatory")
+    @Positive(message = "Amount must be positive")
+    private BigDecimal amount;
+
+    @Column(name = "transaction_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "Transaction type is mandatory")
+    private TransactionType transactionType;
+
+    @Column(name = "counterparty", nullable = false)
+    @NotBlank(message = "Counterparty is mandatory")
+    private String counterparty;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "frequency", nullable = false)
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "Frequency is mandatory")
+    private Frequency frequency;
+
+    // the following occurrences are counted from it, see Frequency#next
+    @Column(name = "first_execution")
+    private LocalDateTime firstExecution;
+
+    @Column(name = "next_execution", nullable = false)
+    @NotNull(message = "Next execution is mandatory")
+    private LocalDateTime nextExecution;
+
+    @Column(name = "last_execution")
+    private LocalDateTime lastExecution;
+
+    // failed attempts to pay the next execution, reset once it is paid or given up
+    @Column(name = "failed_attempts", nullable = false)
+    private int failedAttempts;
+
+    @Column(name = "last_failed_execution")
+    private LocalDateTime lastFailedExecution;
+
+    @Column(name = "last_failure")
+    private String lastFailure;
+
+    @Column(name = "status", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StandingOrderStatus status = StandingOrderStatus.ACTIVE;
+
+    @Version
+    @Column(name = "version")
+    private long version;
+
+    @Column(name = "created_date_time")
+    @CreatedDate
+    private LocalDateTime createdDateTime;
+
+    @Column(name = "last_modified_date_time")
+    @LastModifiedDate
+    private LocalDateTime lastModifiedDateTime;
+
+    public Transaction toTransaction() {
+        return new Transaction(amount, transactionType, counterparty, description, null);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(long accountId) {
+        this.accountId = accountId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public TransactionType getTransactionType() {
+        return transactionType;
+    }
+
+    public void setTransactionType(TransactionType transactionType) {
+        this.transactionType = transactionType;
+    }
+
+    public String getCounterparty() {
+        return counterparty;
+    }
+
+    public void setCounterparty(String counterparty) {
+        this.counterparty = counterparty;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(Frequency frequency) {
+        this.frequency = frequency;
+    }
+
+    public LocalDateTime getFirstExecution() {
+        return firstExecution;
+    }
+
+    public void setFirstExecution(LocalDateTime firstExecution) {
+        this.firstExecution = firstExecution;
+    }
+
+    public LocalDateTime getNextExecution() {
+        return nextExecution;
+    }
+
+    public void setNextExecution(LocalDateTime nextExecution) {
+        this.nextExecution = nextExecution;
+    }
+
+    public LocalDateTime getLastExecution() {
+        return lastExecution;
+    }
+
+    public void setLastExecution(LocalDateTime lastExecution) {
+        this.lastExecution = lastExecution;
+    }
+
+    public int getFailedAttempts() {
+        return failedAttempts;
+    }
+
+    public void setFailedAttempts(int failedAttempts) {
+        this.failedAttempts = failedAttempts;
+    }
+
+    public LocalDateTime getLastFailedExecution() {
+        return lastFailedExecution;
+    }
+
+    public void setLastFailedExecution(LocalDateTime lastFailedExecution) {
+        this.lastFailedExecution = lastFailedExecution;
+    }
+
+    public String getLastFailure() {
+        return lastFailure;
+    }
+
+    public void setLastFailure(String lastFailure) {
+        this.lastFailure = lastFailure;
+    }
+
+    public StandingOrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(StandingOrderStatus status) {
+        this.status = status;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getCreatedDateTime() {
+        return createdDateTime;
+    }
+
+    public void setCreatedDateTime(LocalDateTime createdDateTime) {
+        this.createdDateTime = createdDateTime;
+    }
+
+    public LocalDateTime getLastModifiedDateTime() {
+        return lastModifiedDateTime;
+    }
+
+    public void setLastModifiedDateTime(LocalDateTime lastModifiedDateTime) {
+        this.lastModifiedDateTime = lastModifiedDateTime;
+    }
+}
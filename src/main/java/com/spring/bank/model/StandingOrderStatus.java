@@ -0,0 +1,7 @@
+package com.spring.bank.model;
+
+public enum StandingOrderStatus {
+    ACTIVE, COMPLETED, CANCELLED,
+    // a one-off order whose only occurrence could not be paid
+    FAILED;
+}
@@ -1,20 +1,26 @@
 package com.spring.bank.model;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.function.Function;
+import java.time.temporal.ChronoUnit;
 
 public enum TimeFrame {
 
-    HOURS(interval -> LocalDateTime.now().minusHours(interval)),
-    DAYS(interval -> LocalDateTime.now().minusDays(interval));
+    MINUTES(ChronoUnit.MINUTES),
+    HOURS(ChronoUnit.HOURS),
+    DAYS(ChronoUnit.DAYS);
 
-    private Function<Integer, LocalDateTime> localDateTimeFunction;
+    private ChronoUnit unit;
 
-    TimeFrame(Function<Integer, LocalDateTime> localDateTimeFunction) {
-        this.localDateTimeFunction = localDateTimeFunction;
+    TimeFrame(ChronoUnit unit) {
+        this.unit = unit;
     }
 
     public LocalDateTime apply(Integer interval) {
-        return localDateTimeFunction.apply(interval);
+        return LocalDateTime.now().minus(interval, unit);
+    }
+
+    public Duration toDuration(int interval) {
+        return unit.getDuration().multipliedBy(interval);
     }
 }
@@ -1,26 +1,31 @@
 package com.spring.bank.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = @Index(name = "idx_transaction_recorded_date_time", columnList = "recorded_date_time"))
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "transaction-id")
+    @GenericGenerator(name = "transaction-id", strategy = "com.spring.bank.repository.shard.ShardAwareIdGenerator")
     private long id;
 
     @Column(name = "balance", nullable = false)
     @NotNull(message = "Amount is mandatory")
+    @Positive(message = "Amount must be positive")
     private BigDecimal amount;
 
     @Column(name = "transaction_type", nullable = false)
@@ -35,10 +40,19 @@ public class Transaction {
     @Column(name = "description", nullable = true)
     private String description;
 
+    @Column(name = "flagged", nullable = false)
+    private boolean flagged;
+
     @Column(name = "created_date_time")
     @CreatedDate
     private LocalDateTime createdDateTime;
 
+    // when the row was written, the created date time of an interest credit is the end of the day it accrued for
+    @Column(name = "recorded_date_time")
+    @CreationTimestamp
+    @JsonIgnore
+    private LocalDateTime recordedDateTime;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "account_id")
     private Account account;
@@ -95,6 +109,19 @@ public class Transaction {
         this.description = description;
     }
 
+    public boolean isFlagged() {
+        return flagged;
+    }
+
+    public void setFlagged(boolean flagged) {
+        this.flagged = flagged;
+    }
+
+    @JsonIgnore
+    public BigDecimal getSignedAmount() {
+        return TransactionType.DEBIT == transactionType ? amount.negate() : amount;
+    }
+
     public LocalDateTime getCreatedDateTime() {
         return createdDateTime;
     }
@@ -103,6 +130,14 @@ public class Transaction {
         this.createdDateTime = createdDateTime;
     }
 
+    public LocalDateTime getRecordedDateTime() {
+        return recordedDateTime;
+    }
+
+    public void setRecordedDateTime(LocalDateTime recordedDateTime) {
+        this.recordedDateTime = recordedDateTime;
+    }
+
     public Account getAccount() {
         return account;
     }
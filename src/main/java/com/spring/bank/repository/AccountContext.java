@@ -0,0 +1,44 @@
+package com.spring.bank.repository;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the account the current transaction works on. {@link com.spring.bank.config.ReadWriteRoutingDataSource}
+ * reads it when the transaction acquires its connection, so that reads of an account written shortly before go to
+ * the primary, whichever client wrote it.
+ */
+public final class AccountContext {
+
+    private static final ThreadLocal<Long> CURRENT_ACCOUNT = new ThreadLocal<>();
+
+    private AccountContext() {
+    }
+
+    public static Long currentAccount() {
+        return CURRENT_ACCOUNT.get();
+    }
+
+    /**
+     * Binds the account to the current transaction; it is released when the transaction completes.
+     */
+    public static void bind(long accountId) {
+        boolean bound = CURRENT_ACCOUNT.get() != null;
+        CURRENT_ACCOUNT.set(accountId);
+        if (!bound && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    CURRENT_ACCOUNT.remove();
+                }
+            });
+        }
+    }
+
+    /**
+     * Releases an account bound outside of a transaction, which is not released automatically.
+     */
+    public static void clear() {
+        CURRENT_ACCOUNT.remove();
+    }
+}
@@ -2,8 +2,49 @@ package com.spring.bank.repository;
 
 import com.spring.bank.model.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
+
+    List<Account> findAllByCustomer(String customer);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select min(a.id) from Account a")
+    Long findMinId();
+
+    @Query("select max(a.id) from Account a")
+    Long findMaxId();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<Account> streamAllByIdBetweenOrderByIdAsc(Long fromId, Long toId);
+
+    /**
+     * Streams the id and the balance at {@code endDate} of the accounts of the range, ordered by id: the current
+     * balance less the transactions posted since. Computed by one statement, so a concurrent posting is either in
+     * both or in neither.
+     */
+    @Query(value = "select a.id, a.balance - coalesce((select sum(case when t.transaction_type = 'DEBIT' then -t.balance else t.balance end) " +
+            "from transaction t where t.account_id = a.id and t.created_date_time >= :endDate), 0) " +
+            "from account a where a.id between :fromId and :toId order by a.id", nativeQuery = true)
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<Object[]> streamBalancesAt(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("endDate") LocalDateTime endDate);
+
 }
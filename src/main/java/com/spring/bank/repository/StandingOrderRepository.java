@@ -0,0 +1,33 @@
+package com.spring.bank.repository;
+
+import com.spring.bank.model.StandingOrder;
+import com.spring.bank.model.StandingOrderStatus;
+import com.spring.bank.service.scheduling.ScheduledOccurrence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StandingOrderRepository extends JpaRepository<StandingOrder, Long> {
+
+    List<StandingOrder> findAllByAccountId(Long accountId);
+
+    Optional<StandingOrder> findByIdAndAccountId(Long id, Long accountId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from StandingOrder o where o.id = :id")
+    Optional<StandingOrder> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select new com.spring.bank.service.scheduling.ScheduledOccurrence(o.id, o.accountId, o.nextExecution) " +
+            "from StandingOrder o where o.status = :status and o.nextExecution < :until")
+    List<ScheduledOccurrence> findAllOccurrencesDueBefore(@Param("status") StandingOrderStatus status,
+                                                          @Param("until") LocalDateTime until);
+
+}
@@ -2,14 +2,30 @@ package com.spring.bank.repository;
 
 import com.spring.bank.model.Transaction;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
     List<Transaction> findAllByAccountIdAndCreatedDateTimeGreaterThanEqual(Long accountId, LocalDateTime startDate);
 
+    @Query("select t from Transaction t join fetch t.account a " +
+            "where a.id between :fromId and :toId and t.createdDateTime >= :startDate and t.createdDateTime < :endDate " +
+            "order by a.id, t.createdDateTime, t.id")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<Transaction> streamAllByAccountIdRangeAndPeriod(@Param("fromId") Long fromId, @Param("toId") Long toId,
+                                                          @Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate);
+
 }
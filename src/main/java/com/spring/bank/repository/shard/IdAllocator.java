@@ -0,0 +1,46 @@
+package com.spring.bank.repository.shard;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Hands out ids to the rows written with plain JDBC, from the same source as {@link ShardAwareIdGenerator} gives
+ * the entities: the snowflake ids when sharding is enabled, the shared database sequence otherwise.
+ */
+@Component
+public class IdAllocator {
+
+    private JdbcTemplate jdbcTemplate;
+    private boolean sharded;
+
+    public IdAllocator(JdbcTemplate jdbcTemplate, @Value("${bank.sharding.enabled}") boolean sharded) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sharded = sharded;
+    }
+
+    public long nextId() {
+        return nextIds(1)[0];
+    }
+
+    /**
+     * Allocates the ids in a single round trip when they come from the sequence.
+     */
+    public long[] nextIds(int count) {
+        long[] ids = new long[count];
+        if (sharded) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = ShardAwareIdGenerator.nextId();
+            }
+            return ids;
+        }
+        List<Long> allocated = jdbcTemplate.queryForList("select next value for " + ShardAwareIdGenerator.SEQUENCE_NAME +
+                " from system_range(1, ?)", Long.class, count);
+        for (int i = 0; i < count; i++) {
+            ids[i] = allocated.get(i);
+        }
+        return ids;
+    }
+}
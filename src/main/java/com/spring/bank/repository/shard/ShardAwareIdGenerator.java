@@ -0,0 +1,81 @@
+package com.spring.bank.repository.shard;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Generates ids that are unique across shards without a shared sequence when {@code bank.sharding.enabled} is set:
+ * 41 bits of milliseconds since 2020-01-01, 10 bits of node id ({@code bank.node-id}) and a 12 bit
+ * per-millisecond sequence. The shard of an account is derived from its id by {@link ShardRouter}, so ids never
+ * need a database round trip.
+ * <p>
+ * Without sharding the ids keep coming from {@value #SEQUENCE_NAME}, incremented by one, like the default
+ * {@code @GeneratedValue} mapping did.
+ */
+public class ShardAwareIdGenerator extends SequenceStyleGenerator {
+
+    public static final String NODE_ID_SETTING = "bank.node-id";
+    public static final String SHARDING_ENABLED_SETTING = "bank.sharding.enabled";
+    public static final String SEQUENCE_NAME = "hibernate_sequence";
+
+    private static final long EPOCH_MILLIS = 1577836800000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static long nodeId;
+    private static long lastMillis = -1;
+    private static long sequence;
+
+    private boolean sharded;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        Object configuredNodeId = settings.get(NODE_ID_SETTING);
+        if (configuredNodeId != null) {
+            setNodeId(Long.parseLong(configuredNodeId.toString()));
+        }
+        Object shardingEnabled = settings.get(SHARDING_ENABLED_SETTING);
+        sharded = shardingEnabled != null && Boolean.parseBoolean(shardingEnabled.toString());
+        params.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        params.setProperty(INCREMENT_PARAM, "1");
+        super.configure(type, params, serviceRegistry);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return sharded ? nextId() : super.generate(session, object);
+    }
+
+    public static synchronized void setNodeId(long id) {
+        if (id < 0 || id > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        nodeId = id;
+    }
+
+    public static synchronized long nextId() {
+        long millis = Math.max(System.currentTimeMillis(), lastMillis);
+        if (millis == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // sequence exhausted for this millisecond, borrow the next one
+                millis++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = millis;
+        return ((millis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,63 @@
+package com.spring.bank.repository.shard;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread works on. {@link ShardRoutingDataSource} reads it when a transaction
+ * acquires its connection; threads without a shard use shard 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Binds the shard to the current transaction; it is released when the transaction completes. A transaction
+     * cannot span shards, so binding a different shard inside the same transaction fails.
+     */
+    public static void bind(int shard) {
+        Integer bound = CURRENT_SHARD.get();
+        if (bound != null) {
+            if (bound != shard && TransactionSynchronizationManager.isActualTransactionActive()) {
+                throw new IllegalStateException("Transaction is bound to shard " + bound + " and cannot access shard " + shard);
+            }
+            CURRENT_SHARD.set(shard);
+            return;
+        }
+        CURRENT_SHARD.set(shard);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    CURRENT_SHARD.remove();
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the action on the given shard and restores the previous shard of the thread afterwards.
+     */
+    public static <T> T callOnShard(int shard, Supplier<T> action) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.spring.bank.repository.shard;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maps account ids to shards with consistent hashing: every shard owns a number of virtual nodes on a hash ring
+ * and an account belongs to the first virtual node following the hash of its id. Adding a shard only moves the
+ * accounts that fall on its new virtual nodes.
+ */
+public class ShardRouter {
+
+    private int shardCount;
+    private long[] ringHashes;
+    private int[] ringShards;
+
+    public ShardRouter(int shardCount, int virtualNodes) {
+        if (shardCount < 1 || virtualNodes < 1) {
+            throw new IllegalArgumentException("At least one shard and one virtual node per shard are required");
+        }
+        this.shardCount = shardCount;
+
+        TreeMap<Long, Integer> ring = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                ring.put(hash(((long) shard << 32) | node), shard);
+            }
+        }
+        this.ringHashes = new long[ring.size()];
+        this.ringShards = new int[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : ring.entrySet()) {
+            ringHashes[i] = entry.getKey();
+            ringShards[i++] = entry.getValue();
+        }
+    }
+
+    public int shardFor(long accountId) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(ringHashes, hash(accountId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return ringShards[index == ringHashes.length ? 0 : index];
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * 64-bit finalizer of MurmurHash3, spreads sequential ids evenly over the ring.
+     */
+    private static long hash(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
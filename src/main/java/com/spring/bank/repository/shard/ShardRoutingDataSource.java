@@ -0,0 +1,42 @@
+package com.spring.bank.repository.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes every connection to the pool of the shard bound in {@link ShardContext}. Must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, as services only bind the shard
+ * once the transaction has started.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private List<HikariDataSource> shards;
+
+    public ShardRoutingDataSource(List<HikariDataSource> shards) {
+        this.shards = shards;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targetDataSources.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(shards.get(0));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentShard();
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,45 @@
+package com.spring.bank.repository.shard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Local H2 shards only: Hibernate creates the schema on shard 0, this copies it to the other shards that do
+ * not have it yet. Real deployments migrate every shard on their own.
+ */
+public class ShardSchemaInitializer implements InitializingBean {
+
+    private static Logger logger = LoggerFactory.getLogger(ShardSchemaInitializer.class);
+
+    private DataSource dataSource;
+    private int shardCount;
+
+    public ShardSchemaInitializer(DataSource dataSource, int shardCount) {
+        this.dataSource = dataSource;
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        List<String> schema = ShardContext.callOnShard(0, () -> jdbcTemplate.queryForList("SCRIPT NODATA", String.class));
+        for (int shard = 1; shard < shardCount; shard++) {
+            ShardContext.callOnShard(shard, () -> {
+                Integer tables = jdbcTemplate.queryForObject(
+                        "select count(*) from information_schema.tables where table_name = 'ACCOUNT'", Integer.class);
+                if (tables != null && tables == 0) {
+                    schema.stream()
+                            .filter(statement -> !statement.startsWith("--"))
+                            .forEach(jdbcTemplate::execute);
+                }
+                return null;
+            });
+            logger.info("Schema of shard {} is up to date", shard);
+        }
+    }
+}
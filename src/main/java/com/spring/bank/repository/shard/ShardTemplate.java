@@ -0,0 +1,70 @@
+package com.spring.bank.repository.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs queries that are not bound to a single account on every shard in parallel (scatter-gather).
+ */
+public class ShardTemplate implements DisposableBean {
+
+    private ShardRouter shardRouter;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private ExecutorService executor;
+
+    public ShardTemplate(ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.shardRouter = shardRouter;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(shardRouter.getShardCount(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ShardRouter getShardRouter() {
+        return shardRouter;
+    }
+
+    /**
+     * Runs the read-only query in its own transaction on every shard and concatenates the results.
+     */
+    public <T> List<T> queryAllShards(Supplier<List<T>> query) {
+        if (shardRouter.getShardCount() == 1) {
+            return new ArrayList<>(ShardContext.callOnShard(0, () -> readOnlyTransactionTemplate.execute(status -> query.get())));
+        }
+        List<CompletableFuture<List<T>>> results = new ArrayList<>(shardRouter.getShardCount());
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int target = shard;
+            results.add(CompletableFuture.supplyAsync(() -> ShardContext.callOnShard(target,
+                    () -> readOnlyTransactionTemplate.execute(status -> query.get())), executor));
+        }
+        List<T> merged = new ArrayList<>();
+        try {
+            results.forEach(result -> merged.addAll(result.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return merged;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,109 @@
+package com.spring.bank.repository.storage;
+
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Housekeeping of file-backed H2 databases, one per shard, while the service keeps running.
+ * <p>
+ * A periodic {@code CHECKPOINT SYNC} writes the pending changes of the MVStore to the file and syncs it, which lets
+ * the background writer of the store rewrite the chunks left sparse by updated balances while the service runs; the
+ * whole file is compacted when the database is closed, for at most {@code MAX_COMPACT_TIME} milliseconds of the URL.
+ * Everything goes through SQL, so the service only needs H2 as a runtime dependency. Backups use
+ * {@code BACKUP TO}, which copies a consistent snapshot of the committed data into a zip file without blocking
+ * writers; a backup is restored with {@code org.h2.tools.Restore} while the service is stopped.
+ */
+public class H2StorageMaintenance {
+
+    private static Logger logger = LoggerFactory.getLogger(H2StorageMaintenance.class);
+
+    private static final DateTimeFormatter BACKUP_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private JdbcTemplate jdbcTemplate;
+    private ShardRouter shardRouter;
+    private Path backupDirectory;
+    private int backupsToKeep;
+
+    public H2StorageMaintenance(JdbcTemplate jdbcTemplate, ShardRouter shardRouter, Path backupDirectory, int backupsToKeep) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.backupDirectory = backupDirectory;
+        this.backupsToKeep = backupsToKeep;
+    }
+
+    @Scheduled(initialDelayString = "${bank.storage.checkpoint-interval}", fixedDelayString = "${bank.storage.checkpoint-interval}")
+    public void checkpoint() {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long start = System.nanoTime();
+            ShardContext.callOnShard(shard, () -> {
+                jdbcTemplate.execute("CHECKPOINT SYNC");
+                return null;
+            });
+            logger.info("Checkpoint of shard {} in {} ms", shard, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    @Scheduled(cron = "${bank.storage.backup-cron}")
+    public void scheduledBackup() {
+        backup();
+    }
+
+    /**
+     * Writes a backup of every shard and deletes the oldest ones beyond the number to keep.
+     *
+     * @return the backup files written, one per shard
+     */
+    public List<Path> backup() {
+        String timestamp = LocalDateTime.now().format(BACKUP_TIMESTAMP);
+        List<Path> backups = new ArrayList<>();
+        try {
+            Files.createDirectories(backupDirectory);
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                String prefix = "bankdb-shard-" + shard + "-";
+                Path backup = backupDirectory.resolve(prefix + timestamp + ".zip").toAbsolutePath();
+                long start = System.nanoTime();
+                ShardContext.callOnShard(shard, () -> {
+                    jdbcTemplate.execute("BACKUP TO '" + backup.toString().replace("'", "''") + "'");
+                    return null;
+                });
+                logger.info("Backed up shard {} to {} ({} bytes) in {} ms", shard, backup, Files.size(backup),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                backups.add(backup);
+                deleteOldBackups(prefix);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return backups;
+    }
+
+    private void deleteOldBackups(String prefix) throws IOException {
+        List<Path> existing;
+        try (Stream<Path> files = Files.list(backupDirectory)) {
+            // the timestamp in the name sorts the backups from oldest to newest
+            existing = files.filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (int i = 0; i < existing.size() - backupsToKeep; i++) {
+            Files.delete(existing.get(i));
+            logger.info("Deleted old backup {}", existing.get(i));
+        }
+    }
+}
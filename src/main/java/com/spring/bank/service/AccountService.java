@@ -2,6 +2,7 @@ package com.spring.bank.service;
 
 import com.spring.bank.model.Account;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface AccountService {
@@ -10,4 +11,13 @@ public interface AccountService {
 
     Optional<Account> findById(Long id);
 
+    /**
+     * Closes the account under a row lock, changing nothing but its status.
+     *
+     * @return the closed account, empty if there is no account with this id
+     */
+    Optional<Account> close(Long id);
+
+    List<Account> findByCustomer(String customer);
+
 }
@@ -0,0 +1,18 @@
+package com.spring.bank.service;
+
+import com.spring.bank.model.Transaction;
+
+public interface FraudCheckService {
+
+    /**
+     * Evaluates the velocity rules against a transaction about to be posted on the account. The transaction is
+     * counted in the sliding windows right away and taken back out if the surrounding database transaction does not
+     * commit, so concurrent postings are screened against each other.
+     * The account of the transaction must be set, amount limits are applied per currency.
+     *
+     * @return true if a rule flagged the transaction for review
+     * @throws com.spring.bank.exception.TransactionRejectedException if a rule rejects the transaction
+     */
+    boolean screen(long accountId, Transaction transaction);
+
+}
@@ -0,0 +1,15 @@
+package com.spring.bank.service;
+
+import java.time.LocalDate;
+
+public interface InterestAccrualService {
+
+    /**
+     * Credits the interest earned on the given day to every active account with a positive balance, resuming
+     * from the last committed chunk of a previous, interrupted run of the same day.
+     *
+     * @return the number of accounts credited by this run
+     */
+    long accrue(LocalDate accrualDate);
+
+}
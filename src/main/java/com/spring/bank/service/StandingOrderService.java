@@ -0,0 +1,33 @@
+package com.spring.bank.service;
+
+import com.spring.bank.model.StandingOrder;
+import com.spring.bank.service.scheduling.ScheduledOccurrence;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StandingOrderService {
+
+    StandingOrder create(Long accountId, StandingOrder standingOrder);
+
+    List<StandingOrder> findByAccountId(Long accountId);
+
+    StandingOrder cancel(Long accountId, Long standingOrderId);
+
+    /**
+     * @return the occurrences of active orders due before the given time, on every shard
+     */
+    List<ScheduledOccurrence> findOccurrencesDueBefore(LocalDateTime until);
+
+    /**
+     * Posts the transaction of the occurrence and moves its order to the next occurrence after now, in one database
+     * transaction; occurrences missed in between are not paid. Does nothing if the occurrence was already executed or
+     * the order is no longer active, so an occurrence is executed at most once however often it is fired. A failed
+     * posting is recorded on the order and leaves the occurrence due, until it has failed the maximum number of
+     * attempts.
+     *
+     * @return true if the transaction was posted
+     */
+    boolean execute(ScheduledOccurrence occurrence);
+
+}
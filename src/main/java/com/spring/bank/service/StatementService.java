@@ -0,0 +1,15 @@
+package com.spring.bank.service;
+
+import java.time.LocalDate;
+
+public interface StatementService {
+
+    /**
+     * Writes the end-of-day statement of every account for the given date, resuming from the last
+     * checkpoint of a previous, interrupted run of the same date.
+     *
+     * @return the number of statements written by this run
+     */
+    long generateStatements(LocalDate statementDate);
+
+}
@@ -1,7 +1,9 @@
 package com.spring.bank.service;
 
 import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -9,4 +11,8 @@ public interface TransactionService {
 
     List<Transaction> getTransactionsByCriteria(Long accountId, LocalDateTime startDate);
 
+    Transaction post(Long accountId, Transaction transaction);
+
+    List<Transaction> search(Long accountId, String text, BigDecimal minAmount, BigDecimal maxAmount, TransactionType type);
+
 }
@@ -0,0 +1,5 @@
+package com.spring.bank.service.fraud;
+
+public enum RuleAction {
+    REJECT, FLAG
+}
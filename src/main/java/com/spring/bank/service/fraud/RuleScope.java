@@ -0,0 +1,5 @@
+package com.spring.bank.service.fraud;
+
+public enum RuleScope {
+    ACCOUNT, COUNTERPARTY
+}
@@ -0,0 +1,82 @@
+package com.spring.bank.service.fraud;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Count and sum of the events of the last window, kept in a ring of fixed-width buckets. Buckets older than the
+ * window are recycled lazily, so the counter never allocates after construction.
+ */
+public class SlidingWindowCounter {
+
+    private long bucketMillis;
+    private long[] bucketEpochs;
+    private long[] counts;
+    private long[] sums;
+    private volatile long lastEventMillis;
+
+    public SlidingWindowCounter(Duration window, int buckets) {
+        this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+        this.bucketEpochs = new long[buckets];
+        this.counts = new long[buckets];
+        this.sums = new long[buckets];
+        Arrays.fill(bucketEpochs, Long.MIN_VALUE);
+    }
+
+    /**
+     * @return the epoch of the bucket the event was counted in, to {@link #remove(long, long) remove} it again
+     */
+    public synchronized long add(long nowMillis, long amount) {
+        long epoch = nowMillis / bucketMillis;
+        int slot = (int) (epoch % bucketEpochs.length);
+        if (bucketEpochs[slot] != epoch) {
+            bucketEpochs[slot] = epoch;
+            counts[slot] = 0;
+            sums[slot] = 0;
+        }
+        counts[slot]++;
+        sums[slot] += amount;
+        lastEventMillis = nowMillis;
+        return epoch;
+    }
+
+    /**
+     * Takes back an event counted by {@link #add(long, long)}, unless its bucket has been recycled since.
+     */
+    public synchronized void remove(long epoch, long amount) {
+        int slot = (int) (epoch % bucketEpochs.length);
+        if (bucketEpochs[slot] == epoch) {
+            counts[slot]--;
+            sums[slot] -= amount;
+        }
+    }
+
+    public synchronized long count(long nowMillis) {
+        long oldestEpoch = nowMillis / bucketMillis - bucketEpochs.length;
+        long count = 0;
+        for (int slot = 0; slot < bucketEpochs.length; slot++) {
+            if (bucketEpochs[slot] > oldestEpoch) {
+                count += counts[slot];
+            }
+        }
+        return count;
+    }
+
+    public synchronized long sum(long nowMillis) {
+        long oldestEpoch = nowMillis / bucketMillis - bucketEpochs.length;
+        long sum = 0;
+        for (int slot = 0; slot < bucketEpochs.length; slot++) {
+            if (bucketEpochs[slot] > oldestEpoch) {
+                sum += sums[slot];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * True once every bucket has left the window, the counter can then be dropped.
+     */
+    public boolean isIdle(long nowMillis) {
+        return nowMillis - lastEventMillis > bucketMillis * bucketEpochs.length;
+    }
+}
@@ -0,0 +1,105 @@
+package com.spring.bank.service.fraud;
+
+import com.spring.bank.model.Transaction;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the number and/or the total amount (in minor units of the account currency) of the transactions of one
+ * account or one counterparty over a sliding window.
+ */
+public class VelocityRule {
+
+    private String name;
+    private RuleScope scope;
+    private RuleAction action;
+    private Duration window;
+    private int buckets;
+    private Long maxCount;
+    private Long maxAmount;
+    private ConcurrentMap<Object, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+
+    public VelocityRule(String name, RuleScope scope, RuleAction action, Duration window, int buckets, Long maxCount, Long maxAmount) {
+        this.name = name;
+        this.scope = scope;
+        this.action = action;
+        this.window = window;
+        this.buckets = buckets;
+        this.maxCount = maxCount;
+        this.maxAmount = maxAmount;
+    }
+
+    /**
+     * An account holds a single currency; a counterparty is paid from accounts of several currencies, so its
+     * amounts are summed per currency and the amount limit applies to each currency on its own.
+     */
+    public Object keyOf(long accountId, Transaction transaction) {
+        if (scope == RuleScope.ACCOUNT) {
+            return accountId;
+        }
+        String counterparty = transaction.getCounterparty().trim().toLowerCase();
+        return maxAmount == null ? counterparty : counterparty + ":" + transaction.getAccount().getCurrency();
+    }
+
+    /**
+     * Counts the transaction in the window of the key, then checks the limits. Counting before checking makes
+     * concurrent screenings of the same key see each other; the returned reservation takes the transaction back out
+     * of the window if it is not posted.
+     * <p>
+     * The counting happens inside the map operation of the key, so {@link #evictIdle(long)} cannot drop the counter
+     * between looking it up and counting in it.
+     */
+    public Reservation reserve(Object key, long amount, long nowMillis) {
+        Reservation[] reservation = new Reservation[1];
+        counters.compute(key, (k, counter) -> {
+            if (counter == null) {
+                counter = new SlidingWindowCounter(window, buckets);
+            }
+            long epoch = counter.add(nowMillis, amount);
+            boolean violated = (maxCount != null && counter.count(nowMillis) > maxCount)
+                    || (maxAmount != null && counter.sum(nowMillis) > maxAmount);
+            reservation[0] = new Reservation(counter, epoch, amount, violated);
+            return counter;
+        });
+        return reservation[0];
+    }
+
+    public void evictIdle(long nowMillis) {
+        for (Object key : counters.keySet()) {
+            counters.computeIfPresent(key, (k, counter) -> counter.isIdle(nowMillis) ? null : counter);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RuleAction getAction() {
+        return action;
+    }
+
+    public static class Reservation {
+
+        private final SlidingWindowCounter counter;
+        private final long epoch;
+        private final long amount;
+        private final boolean violated;
+
+        private Reservation(SlidingWindowCounter counter, long epoch, long amount, boolean violated) {
+            this.counter = counter;
+            this.epoch = epoch;
+            this.amount = amount;
+            this.violated = violated;
+        }
+
+        public boolean isViolated() {
+            return violated;
+        }
+
+        public void release() {
+            counter.remove(epoch, amount);
+        }
+    }
+}
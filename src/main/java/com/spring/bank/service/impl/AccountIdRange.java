@@ -0,0 +1,58 @@
+package com.spring.bank.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Inclusive range of account ids processed by one partition of a batch job.
+ */
+final class AccountIdRange {
+
+    private final long fromId;
+    private final long toId;
+
+    AccountIdRange(long fromId, long toId) {
+        this.fromId = fromId;
+        this.toId = toId;
+    }
+
+    /**
+     * Splits [minId, maxId] into at most {@code partitions} contiguous ranges of (almost) equal width.
+     */
+    static List<AccountIdRange> split(long minId, long maxId, int partitions) {
+        if (maxId < minId) {
+            return Collections.emptyList();
+        }
+        long span = maxId - minId + 1;
+        int count = (int) Math.max(1, Math.min(partitions, span));
+        long size = span / count;
+        long remainder = span % count;
+
+        List<AccountIdRange> ranges = new ArrayList<>(count);
+        long from = minId;
+        for (int i = 0; i < count; i++) {
+            long to = from + size - 1 + (i < remainder ? 1 : 0);
+            ranges.add(new AccountIdRange(from, to));
+            from = to + 1;
+        }
+        return ranges;
+    }
+
+    long getFromId() {
+        return fromId;
+    }
+
+    long getToId() {
+        return toId;
+    }
+
+    boolean isEmpty() {
+        return fromId > toId;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + fromId + ", " + toId + "]";
+    }
+}
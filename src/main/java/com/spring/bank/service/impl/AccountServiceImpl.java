@@ -1,11 +1,23 @@
 package com.spring.bank.service.impl;
 
 import com.spring.bank.model.Account;
+import com.spring.bank.model.AccountStatus;
+import com.spring.bank.repository.AccountContext;
 import com.spring.bank.repository.AccountRepository;
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import com.spring.bank.repository.shard.ShardTemplate;
 import com.spring.bank.service.AccountService;
+import com.spring.bank.service.search.TransactionIndex;
+import com.spring.bank.service.status.AccountClosedEvent;
+import com.spring.bank.service.status.AccountStatusIndex;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -13,20 +25,70 @@ import java.util.Optional;
 public class AccountServiceImpl implements AccountService {
 
     private AccountRepository accountRepository;
+    private ShardRouter shardRouter;
+    private ShardTemplate shardTemplate;
+    private TransactionIndex transactionIndex;
+    private AccountStatusIndex accountStatusIndex;
+    private ApplicationEventPublisher eventPublisher;
 
-    public AccountServiceImpl(AccountRepository accountRepository) {
+    public AccountServiceImpl(AccountRepository accountRepository, ShardTemplate shardTemplate, TransactionIndex transactionIndex,
+                              AccountStatusIndex accountStatusIndex, ApplicationEventPublisher eventPublisher) {
         this.accountRepository = accountRepository;
+        this.shardRouter = shardTemplate.getShardRouter();
+        this.shardTemplate = shardTemplate;
+        this.transactionIndex = transactionIndex;
+        this.accountStatusIndex = accountStatusIndex;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public Account save(Account account) {
-        return accountRepository.save(account);
+        if (account.getId() != 0) {
+            // closing is final, a closed account cannot be changed anymore
+            accountStatusIndex.checkActive(account.getId());
+            ShardContext.bind(shardRouter.shardFor(account.getId()));
+            AccountContext.bind(account.getId());
+            Account saved = accountRepository.save(account);
+            if (saved.getAccountStatus() == AccountStatus.CLOSED) {
+                eventPublisher.publishEvent(new AccountClosedEvent(saved.getId()));
+            }
+            return saved;
+        }
+        // persisting assigns the id, the insert itself is only flushed on commit
+        Account saved = accountRepository.save(account);
+        ShardContext.bind(shardRouter.shardFor(saved.getId()));
+        AccountContext.bind(saved.getId());
+        transactionIndex.addOnCommit(saved.getTransactions());
+        return saved;
     }
 
     @Override
     @Transactional(readOnly = true)
     public Optional<Account> findById(Long id) {
+        ShardContext.bind(shardRouter.shardFor(id));
+        AccountContext.bind(id);
         return accountRepository.findById(id);
     }
 
+    @Override
+    public Optional<Account> close(Long id) {
+        ShardContext.bind(shardRouter.shardFor(id));
+        AccountContext.bind(id);
+        // locked and modified in place, so a posting committed meanwhile is not overwritten by a stale balance
+        Optional<Account> account = accountRepository.findByIdForUpdate(id);
+        if (account.isPresent() && account.get().getAccountStatus() != AccountStatus.CLOSED) {
+            account.get().setAccountStatus(AccountStatus.CLOSED);
+            eventPublisher.publishEvent(new AccountClosedEvent(id));
+        }
+        return account;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Account> findByCustomer(String customer) {
+        List<Account> accounts = shardTemplate.queryAllShards(() -> accountRepository.findAllByCustomer(customer));
+        accounts.sort(Comparator.comparingLong(Account::getId));
+        return accounts;
+    }
+
 }
@@ -0,0 +1,87 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.config.FraudProperties;
+import com.spring.bank.exception.TransactionRejectedException;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.service.FraudCheckService;
+import com.spring.bank.service.fraud.RuleAction;
+import com.spring.bank.service.fraud.VelocityRule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the sliding windows of every rule in memory, so screening a posting never queries the database.
+ */
+@Service
+public class FraudCheckServiceImpl implements FraudCheckService {
+
+    private static Logger logger = LoggerFactory.getLogger(FraudCheckServiceImpl.class);
+
+    private List<VelocityRule> rules;
+
+    public FraudCheckServiceImpl(FraudProperties fraudProperties) {
+        this.rules = fraudProperties.getRules().stream()
+                .map(rule -> new VelocityRule(rule.getName(), rule.getScope(), rule.getAction(),
+                        rule.getTimeFrame().toDuration(1), fraudProperties.getBuckets(), rule.getMaxCount(),
+                        rule.getMaxAmount() == null ? null : toMinorUnits(rule.getMaxAmount())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean screen(long accountId, Transaction transaction) {
+        long now = System.currentTimeMillis();
+        long amount = toMinorUnits(transaction.getAmount());
+        List<VelocityRule.Reservation> reservations = new ArrayList<>(rules.size());
+        boolean flagged = false;
+        for (VelocityRule rule : rules) {
+            VelocityRule.Reservation reservation = rule.reserve(rule.keyOf(accountId, transaction), amount, now);
+            reservations.add(reservation);
+            if (!reservation.isViolated()) {
+                continue;
+            }
+            if (rule.getAction() == RuleAction.REJECT) {
+                reservations.forEach(VelocityRule.Reservation::release);
+                logger.warn("Transaction on account {} rejected by rule {}", accountId, rule.getName());
+                throw new TransactionRejectedException("Transaction rejected by rule " + rule.getName());
+            }
+            logger.warn("Transaction on account {} flagged by rule {}", accountId, rule.getName());
+            flagged = true;
+        }
+        releaseOnRollback(reservations);
+        return flagged;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.fraud.eviction-interval}")
+    public void evictIdleCounters() {
+        long now = System.currentTimeMillis();
+        rules.forEach(rule -> rule.evictIdle(now));
+    }
+
+    private void releaseOnRollback(List<VelocityRule.Reservation> reservations) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    reservations.forEach(VelocityRule.Reservation::release);
+                }
+            }
+        });
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
@@ -0,0 +1,296 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.config.InterestProperties;
+import com.spring.bank.model.Currency;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.repository.shard.IdAllocator;
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import com.spring.bank.service.InterestAccrualService;
+import com.spring.bank.service.search.TransactionIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accrues daily interest without going through JPA. The accounts of every shard are split into id ranges that are
+ * processed in parallel; each range is walked in chunks whose balances are loaded into primitive arrays, computed
+ * by {@link InterestCalculator} and written back as CREDIT transactions and balance updates in JDBC batches,
+ * together with the partition checkpoint, in one database transaction per chunk.
+ */
+@Service
+public class InterestAccrualServiceImpl implements InterestAccrualService {
+
+    private static Logger logger = LoggerFactory.getLogger(InterestAccrualServiceImpl.class);
+
+    static final String JOB_NAME = "interest-accrual";
+    static final String INTEREST_COUNTERPARTY = "Interest";
+
+    private JdbcTemplate jdbcTemplate;
+    private ShardRouter shardRouter;
+    private IdAllocator idAllocator;
+    private TransactionTemplate transactionTemplate;
+    private TransactionIndex transactionIndex;
+    private int[] annualRateBasisPoints;
+    private int partitions;
+    private int chunkSize;
+
+    public InterestAccrualServiceImpl(JdbcTemplate jdbcTemplate, ShardRouter shardRouter, IdAllocator idAllocator,
+                                      PlatformTransactionManager transactionManager, TransactionIndex transactionIndex,
+                                      InterestProperties interestProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.idAllocator = idAllocator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionIndex = transactionIndex;
+        this.annualRateBasisPoints = new int[Currency.values().length];
+        interestProperties.getAnnualRateBasisPoints().forEach((currency, rate) -> annualRateBasisPoints[currency.ordinal()] = rate);
+        this.partitions = interestProperties.getPartitions() > 0
+                ? interestProperties.getPartitions()
+                : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = interestProperties.getChunkSize();
+    }
+
+    @Scheduled(cron = "${bank.interest.cron}")
+    public void accrueDailyInterest() {
+        accrue(LocalDate.now().minusDays(1));
+    }
+
+    @Override
+    public long accrue(LocalDate accrualDate) {
+        List<Callable<Long>> tasks = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int targetShard = shard;
+            for (Checkpoint checkpoint : loadOrCreatePlan(accrualDate, shard)) {
+                if (checkpoint.lastAccountId < checkpoint.toAccountId) {
+                    tasks.add(() -> accruePartition(accrualDate, targetShard, checkpoint));
+                }
+            }
+        }
+        if (tasks.isEmpty()) {
+            logger.info("Interest for {} already accrued", accrualDate);
+            return 0;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(tasks.size(), Runtime.getRuntime().availableProcessors()));
+        long start = System.nanoTime();
+        try {
+            long credited = 0;
+            for (Future<Long> result : executor.invokeAll(tasks)) {
+                credited += result.get();
+            }
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            logger.info("Accrued interest for {} on {} accounts in {} ms ({} accounts/sec)",
+                    accrualDate, credited, elapsedMillis, credited * 1000 / elapsedMillis);
+            return credited;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interest accrual for " + accrualDate + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Interest accrual for " + accrualDate + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the partitions of the run from the checkpoint table of the shard, creating them on the first run.
+     */
+    private List<Checkpoint> loadOrCreatePlan(LocalDate accrualDate, int shard) {
+        try {
+            return ShardContext.callOnShard(shard, () -> transactionTemplate.execute(status -> loadOrInsertPlan(accrualDate)));
+        } catch (DuplicateKeyException e) {
+            // another instance created the plan meanwhile, the unique key of the checkpoints kept only one
+            return ShardContext.callOnShard(shard, () -> transactionTemplate.execute(status -> loadOrInsertPlan(accrualDate)));
+        }
+    }
+
+    private List<Checkpoint> loadOrInsertPlan(LocalDate accrualDate) {
+        List<Checkpoint> plan = jdbcTemplate.query(
+                "select id, from_account_id, to_account_id, last_account_id from job_checkpoint " +
+                        "where job_name = ? and run_date = ? order by partition_index",
+                (rs, rowNum) -> new Checkpoint(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)),
+                JOB_NAME, accrualDate);
+        if (!plan.isEmpty()) {
+            return plan;
+        }
+        Long[] bounds = jdbcTemplate.queryForObject("select min(id), max(id) from account",
+                (rs, rowNum) -> new Long[]{rs.getObject(1, Long.class), rs.getObject(2, Long.class)});
+        if (bounds == null || bounds[0] == null) {
+            return plan;
+        }
+        List<AccountIdRange> ranges = AccountIdRange.split(bounds[0], bounds[1], partitions);
+        long[] ids = idAllocator.nextIds(ranges.size());
+        for (int i = 0; i < ranges.size(); i++) {
+            AccountIdRange range = ranges.get(i);
+            Checkpoint checkpoint = new Checkpoint(ids[i], range.getFromId(), range.getToId(), range.getFromId() - 1);
+            jdbcTemplate.update("insert into job_checkpoint (id, job_name, run_date, partition_index, from_account_id, " +
+                            "to_account_id, last_account_id, last_modified_date_time) values (?, ?, ?, ?, ?, ?, ?, ?)",
+                    checkpoint.id, JOB_NAME, accrualDate, i, checkpoint.fromAccountId, checkpoint.toAccountId,
+                    checkpoint.lastAccountId, Timestamp.valueOf(LocalDateTime.now()));
+            plan.add(checkpoint);
+        }
+        return plan;
+    }
+
+    private long accruePartition(LocalDate accrualDate, int shard, Checkpoint checkpoint) {
+        Chunk chunk = new Chunk(chunkSize);
+        long credited = 0;
+        while (checkpoint.lastAccountId < checkpoint.toAccountId) {
+            Long chunkCredited = ShardContext.callOnShard(shard,
+                    () -> transactionTemplate.execute(status -> accrueChunk(accrualDate, checkpoint, chunk)));
+            credited += chunkCredited == null ? 0 : chunkCredited;
+            indexCredits(accrualDate, chunk);
+        }
+        return credited;
+    }
+
+    private long accrueChunk(LocalDate accrualDate, Checkpoint checkpoint, Chunk chunk) {
+        chunk.count = 0;
+        // another instance may run the same partition: the row lock makes the chunks of both take turns and each
+        // chunk starts where the last committed one stopped
+        checkpoint.lastAccountId = jdbcTemplate.queryForObject("select last_account_id from job_checkpoint where id = ? for update",
+                Long.class, checkpoint.id);
+        if (checkpoint.lastAccountId >= checkpoint.toAccountId) {
+            return 0;
+        }
+        // interest is paid on the balance at the end of the accrual date, without the transactions posted since
+        long[] scanned = new long[2];
+        jdbcTemplate.query("select a.id, a.balance - coalesce((select sum(case when t.transaction_type = 'DEBIT' " +
+                        "then -t.balance else t.balance end) from transaction t where t.account_id = a.id " +
+                        "and t.created_date_time >= ?), 0), a.currency from account a " +
+                        "where a.id > ? and a.id <= ? and a.account_status = 'ACTIVE' order by a.id limit ?",
+                rs -> {
+                    scanned[0]++;
+                    scanned[1] = rs.getLong(1);
+                    long balance = toMinorUnits(rs.getBigDecimal(2));
+                    if (balance <= 0) {
+                        return;
+                    }
+                    int i = chunk.count++;
+                    chunk.accountIds[i] = rs.getLong(1);
+                    chunk.balances[i] = balance;
+                    chunk.rates[i] = annualRateBasisPoints[Currency.valueOf(rs.getString(3)).ordinal()];
+                },
+                Timestamp.valueOf(accrualDate.plusDays(1).atStartOfDay()), checkpoint.lastAccountId, checkpoint.toAccountId, chunkSize);
+
+        InterestCalculator.dailyInterest(chunk.balances, chunk.rates, chunk.interest, chunk.count, accrualDate.lengthOfYear());
+
+        int[] credited = new int[chunk.count];
+        int creditedCount = 0;
+        for (int i = 0; i < chunk.count; i++) {
+            chunk.transactionIds[i] = 0;
+            if (chunk.interest[i] > 0) {
+                credited[creditedCount++] = i;
+            }
+        }
+        writeCredits(accrualDate, chunk, credited, creditedCount);
+
+        long lastAccountId = scanned[0] < chunkSize ? checkpoint.toAccountId : scanned[1];
+        jdbcTemplate.update("update job_checkpoint set last_account_id = ?, last_modified_date_time = ? where id = ?",
+                lastAccountId, Timestamp.valueOf(LocalDateTime.now()), checkpoint.id);
+        // only moved forward once the chunk transaction got this far, a failed chunk is retried by the next run
+        checkpoint.lastAccountId = lastAccountId;
+        return creditedCount;
+    }
+
+    private void writeCredits(LocalDate accrualDate, Chunk chunk, int[] credited, int creditedCount) {
+        if (creditedCount == 0) {
+            return;
+        }
+        Timestamp postedAt = Timestamp.valueOf(accrualDate.atTime(23, 59, 59));
+        Timestamp recordedAt = Timestamp.valueOf(LocalDateTime.now());
+        String description = description(accrualDate);
+        long[] ids = idAllocator.nextIds(creditedCount);
+        List<Object[]> transactions = new ArrayList<>(creditedCount);
+        List<Object[]> balances = new ArrayList<>(creditedCount);
+        for (int j = 0; j < creditedCount; j++) {
+            int i = credited[j];
+            BigDecimal interest = BigDecimal.valueOf(chunk.interest[i], 2);
+            chunk.transactionIds[i] = ids[j];
+            transactions.add(new Object[]{chunk.transactionIds[i], interest, INTEREST_COUNTERPARTY, description, postedAt,
+                    recordedAt, chunk.accountIds[i]});
+            balances.add(new Object[]{interest, postedAt, chunk.accountIds[i]});
+        }
+        // the amount of a transaction is stored in its balance column
+        jdbcTemplate.batchUpdate("insert into transaction (id, balance, transaction_type, counterparty, description, flagged, " +
+                "created_date_time, recorded_date_time, account_id) values (?, ?, 'CREDIT', ?, ?, false, ?, ?, ?)", transactions);
+        jdbcTemplate.batchUpdate("update account set balance = balance + ?, last_modified_date_time = ? where id = ?", balances);
+    }
+
+    /**
+     * Adds the credits of the committed chunk to the search index.
+     */
+    private void indexCredits(LocalDate accrualDate, Chunk chunk) {
+        String description = description(accrualDate);
+        for (int i = 0; i < chunk.count; i++) {
+            if (chunk.transactionIds[i] != 0) {
+                transactionIndex.add(chunk.accountIds[i], chunk.transactionIds[i], BigDecimal.valueOf(chunk.interest[i], 2),
+                        TransactionType.CREDIT, INTEREST_COUNTERPARTY, description);
+            }
+        }
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static String description(LocalDate accrualDate) {
+        return "Interest accrual " + accrualDate;
+    }
+
+    private static class Checkpoint {
+
+        private final long id;
+        private final long fromAccountId;
+        private final long toAccountId;
+        private volatile long lastAccountId;
+
+        private Checkpoint(long id, long fromAccountId, long toAccountId, long lastAccountId) {
+            this.id = id;
+            this.fromAccountId = fromAccountId;
+            this.toAccountId = toAccountId;
+            this.lastAccountId = lastAccountId;
+        }
+    }
+
+    /**
+     * Column arrays of one chunk, reused for all the chunks of a partition.
+     */
+    private static class Chunk {
+
+        private final long[] accountIds;
+        private final long[] balances;
+        private final int[] rates;
+        private final long[] interest;
+        private final long[] transactionIds;
+        private int count;
+
+        private Chunk(int size) {
+            this.accountIds = new long[size];
+            this.balances = new long[size];
+            this.rates = new int[size];
+            this.interest = new long[size];
+            this.transactionIds = new long[size];
+        }
+    }
+}
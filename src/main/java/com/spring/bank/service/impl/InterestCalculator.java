@@ -0,0 +1,20 @@
+package com.spring.bank.service.impl;
+
+/**
+ * Daily interest on balances in minor units, using integer arithmetic only so that every run yields the same
+ * amounts to the cent: balance * annual rate / (10 000 * days in year), rounded half up.
+ */
+final class InterestCalculator {
+
+    private InterestCalculator() {
+    }
+
+    static void dailyInterest(long[] balances, int[] annualRatesBasisPoints, long[] interest, int count, int daysInYear) {
+        long denominator = 10_000L * daysInYear;
+        long half = denominator / 2;
+        for (int i = 0; i < count; i++) {
+            long balance = balances[i];
+            interest[i] = balance <= 0 ? 0 : (Math.multiplyExact(balance, annualRatesBasisPoints[i]) + half) / denominator;
+        }
+    }
+}
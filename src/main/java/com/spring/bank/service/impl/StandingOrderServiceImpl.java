@@ -0,0 +1,217 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.exception.AccountClosedException;
+import com.spring.bank.exception.ResourceNotFoundException;
+import com.spring.bank.model.Account;
+import com.spring.bank.model.AccountStatus;
+import com.spring.bank.model.StandingOrder;
+import com.spring.bank.model.StandingOrderStatus;
+import com.spring.bank.repository.AccountContext;
+import com.spring.bank.repository.AccountRepository;
+import com.spring.bank.repository.StandingOrderRepository;
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import com.spring.bank.repository.shard.ShardTemplate;
+import com.spring.bank.service.StandingOrderService;
+import com.spring.bank.service.TransactionService;
+import com.spring.bank.service.scheduling.ScheduledOccurrence;
+import com.spring.bank.service.status.AccountStatusIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Newly due occurrences are published as {@link ScheduledOccurrence} events, which the scheduler picks up once
+ * the transaction that created or advanced the order has committed.
+ * <p>
+ * An occurrence whose posting fails stays due and is attempted again by the next load of the scheduler, up to
+ * {@code bank.standing-orders.max-attempts} times; the failure is recorded on the order. An order that missed
+ * several occurrences, for instance while the service was down, pays the overdue one once and then resumes with
+ * the first occurrence still ahead.
+ */
+@Service
+@Transactional
+public class StandingOrderServiceImpl implements StandingOrderService {
+
+    private static Logger logger = LoggerFactory.getLogger(StandingOrderServiceImpl.class);
+
+    private static final int MAX_FAILURE_LENGTH = 255;
+
+    private StandingOrderRepository standingOrderRepository;
+    private AccountRepository accountRepository;
+    private TransactionService transactionService;
+    private ShardRouter shardRouter;
+    private ShardTemplate shardTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private TransactionTemplate transactionTemplate;
+    private AccountStatusIndex accountStatusIndex;
+    private int maxAttempts;
+
+    public StandingOrderServiceImpl(StandingOrderRepository standingOrderRepository, AccountRepository accountRepository,
+                                    TransactionService transactionService, ShardTemplate shardTemplate,
+                                    ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                                    AccountStatusIndex accountStatusIndex,
+                                    @Value("${bank.standing-orders.max-attempts}") int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("bank.standing-orders.max-attempts must be at least 1, was " + maxAttempts);
+        }
+        this.standingOrderRepository = standingOrderRepository;
+        this.accountRepository = accountRepository;
+        this.transactionService = transactionService;
+        this.shardRouter = shardTemplate.getShardRouter();
+        this.shardTemplate = shardTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountStatusIndex = accountStatusIndex;
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    public StandingOrder create(Long accountId, StandingOrder standingOrder) {
+        accountStatusIndex.checkActive(accountId);
+        ShardContext.bind(shardRouter.shardFor(accountId));
+        AccountContext.bind(accountId);
+        // locked like a posting, so the account cannot be closed before the order is saved
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account with id " + accountId + " not found"));
+        if (account.getAccountStatus() == AccountStatus.CLOSED) {
+            // closed by another instance since the index was last refreshed
+            accountStatusIndex.markClosed(accountId);
+            throw new AccountClosedException("Account with id " + accountId + " is closed");
+        }
+        standingOrder.setId(0);
+        standingOrder.setAccountId(accountId);
+        standingOrder.setStatus(StandingOrderStatus.ACTIVE);
+        standingOrder.setFirstExecution(standingOrder.getNextExecution());
+        standingOrder.setLastExecution(null);
+        standingOrder.setFailedAttempts(0);
+        standingOrder.setLastFailedExecution(null);
+        standingOrder.setLastFailure(null);
+        StandingOrder saved = standingOrderRepository.save(standingOrder);
+        eventPublisher.publishEvent(new ScheduledOccurrence(saved.getId(), accountId, saved.getNextExecution()));
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StandingOrder> findByAccountId(Long accountId) {
+        ShardContext.bind(shardRouter.shardFor(accountId));
+        AccountContext.bind(accountId);
+        return standingOrderRepository.findAllByAccountId(accountId);
+    }
+
+    @Override
+    public StandingOrder cancel(Long accountId, Long standingOrderId) {
+        ShardContext.bind(shardRouter.shardFor(accountId));
+        AccountContext.bind(accountId);
+        StandingOrder standingOrder = standingOrderRepository.findByIdAndAccountId(standingOrderId, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Standing order with id " + standingOrderId + " not found"));
+        standingOrder.setStatus(StandingOrderStatus.CANCELLED);
+        return standingOrderRepository.save(standingOrder);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ScheduledOccurrence> findOccurrencesDueBefore(LocalDateTime until) {
+        return shardTemplate.queryAllShards(
+                () -> standingOrderRepository.findAllOccurrencesDueBefore(StandingOrderStatus.ACTIVE, until));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean execute(ScheduledOccurrence occurrence) {
+        try {
+            return Boolean.TRUE.equals(transactionTemplate.execute(status -> executeOccurrence(occurrence)));
+        } catch (RuntimeException e) {
+            // the posting was rolled back with the rest of the transaction, so attempting it again cannot pay twice
+            transactionTemplate.executeWithoutResult(status -> recordFailure(occurrence, e));
+            return false;
+        }
+    }
+
+    private boolean executeOccurrence(ScheduledOccurrence occurrence) {
+        StandingOrder standingOrder = lockIfDue(occurrence);
+        if (standingOrder == null) {
+            return false;
+        }
+        if (accountStatusIndex.isClosed(standingOrder.getAccountId())) {
+            logger.info("Cancelling standing order {} of closed account {}", standingOrder.getId(), standingOrder.getAccountId());
+            standingOrder.setStatus(StandingOrderStatus.CANCELLED);
+            standingOrderRepository.save(standingOrder);
+            return false;
+        }
+        transactionService.post(standingOrder.getAccountId(), standingOrder.toTransaction());
+        standingOrder.setLastExecution(occurrence.getDueAt());
+        standingOrder.setFailedAttempts(0);
+        advance(standingOrder, occurrence.getDueAt(), StandingOrderStatus.COMPLETED);
+        return true;
+    }
+
+    private void recordFailure(ScheduledOccurrence occurrence, RuntimeException failure) {
+        StandingOrder standingOrder = lockIfDue(occurrence);
+        if (standingOrder == null) {
+            return;
+        }
+        int attempts = standingOrder.getFailedAttempts() + 1;
+        String message = String.valueOf(failure.getMessage());
+        standingOrder.setLastFailedExecution(occurrence.getDueAt());
+        standingOrder.setLastFailure(message.length() > MAX_FAILURE_LENGTH ? message.substring(0, MAX_FAILURE_LENGTH) : message);
+        if (attempts < maxAttempts) {
+            logger.warn("Could not execute standing order {} due at {}, attempt {} of {}",
+                    standingOrder.getId(), occurrence.getDueAt(), attempts, maxAttempts, failure);
+            standingOrder.setFailedAttempts(attempts);
+            standingOrderRepository.save(standingOrder);
+            return;
+        }
+        logger.error("Could not execute standing order {} due at {} in {} attempts, skipping the occurrence",
+                standingOrder.getId(), occurrence.getDueAt(), attempts, failure);
+        standingOrder.setFailedAttempts(0);
+        advance(standingOrder, occurrence.getDueAt(), StandingOrderStatus.FAILED);
+    }
+
+    /**
+     * Locks the order, unless the occurrence is not due anymore because it was executed, given up or cancelled.
+     */
+    private StandingOrder lockIfDue(ScheduledOccurrence occurrence) {
+        ShardContext.bind(shardRouter.shardFor(occurrence.getAccountId()));
+        AccountContext.bind(occurrence.getAccountId());
+        StandingOrder standingOrder = standingOrderRepository.findByIdForUpdate(occurrence.getOrderId()).orElse(null);
+        if (standingOrder == null || standingOrder.getStatus() != StandingOrderStatus.ACTIVE
+                || !standingOrder.getNextExecution().equals(occurrence.getDueAt())) {
+            return null;
+        }
+        return standingOrder;
+    }
+
+    /**
+     * Moves the order past the occurrence, to the first occurrence after now when it fell behind, or ends it with the
+     * given status when there is none.
+     */
+    private void advance(StandingOrder standingOrder, LocalDateTime dueAt, StandingOrderStatus lastStatus) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime firstExecution = standingOrder.getFirstExecution() == null ? dueAt : standingOrder.getFirstExecution();
+        LocalDateTime next = standingOrder.getFrequency().next(firstExecution, dueAt.isAfter(now) ? dueAt : now);
+        if (next == null) {
+            standingOrder.setStatus(lastStatus);
+        } else {
+            LocalDateTime missedFrom = standingOrder.getFrequency().next(firstExecution, dueAt);
+            if (missedFrom.isBefore(next)) {
+                logger.warn("Standing order {} fell behind, the occurrences due from {} until {} are not paid",
+                        standingOrder.getId(), missedFrom, now);
+            }
+            standingOrder.setNextExecution(next);
+            eventPublisher.publishEvent(new ScheduledOccurrence(standingOrder.getId(), standingOrder.getAccountId(), next));
+        }
+        standingOrderRepository.save(standingOrder);
+    }
+
+}
@@ -0,0 +1,248 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.model.Account;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.repository.AccountRepository;
+import com.spring.bank.repository.TransactionRepository;
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import com.spring.bank.service.StatementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes one statement file per account and day. The accounts of every shard are split into id ranges that are
+ * processed in parallel; each partition streams its accounts, their balances at the end of the day and the day's
+ * transactions with one ordered query each and records its progress in a checkpoint file next to the statements, so an interrupted run resumes where it stopped.
+ */
+@Service
+public class StatementServiceImpl implements StatementService {
+
+    private static Logger logger = LoggerFactory.getLogger(StatementServiceImpl.class);
+
+    private static final String PLAN_FILE = "partitions.plan";
+    private static final String LINES_HEADER = "createdDateTime;transactionType;amount;counterparty;description";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private ShardRouter shardRouter;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private Path outputDirectory;
+    private int partitions;
+    private int checkpointInterval;
+
+    public StatementServiceImpl(AccountRepository accountRepository, TransactionRepository transactionRepository,
+                                ShardRouter shardRouter, PlatformTransactionManager transactionManager,
+                                @Value("${bank.statement.output-dir}") String outputDirectory,
+                                @Value("${bank.statement.partitions}") int partitions,
+                                @Value("${bank.statement.checkpoint-interval}") int checkpointInterval) {
+        if (checkpointInterval < 1) {
+            throw new IllegalArgumentException("bank.statement.checkpoint-interval must be at least 1, was " + checkpointInterval);
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.outputDirectory = Paths.get(outputDirectory);
+        this.partitions = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    @Scheduled(cron = "${bank.statement.cron}")
+    public void generateDailyStatements() {
+        generateStatements(LocalDate.now().minusDays(1));
+    }
+
+    @Override
+    public long generateStatements(LocalDate statementDate) {
+        Path runDirectory = outputDirectory.resolve(statementDate.toString());
+        List<List<AccountIdRange>> plan = loadOrCreatePlan(runDirectory);
+        int partitionCount = plan.stream().mapToInt(List::size).sum();
+        if (partitionCount == 0) {
+            logger.info("No accounts to write statements for on {}", statementDate);
+            return 0;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(partitionCount, Runtime.getRuntime().availableProcessors()));
+        long start = System.nanoTime();
+        try {
+            List<Future<Long>> results = new ArrayList<>(partitionCount);
+            for (int shard = 0; shard < plan.size(); shard++) {
+                for (int i = 0; i < plan.get(shard).size(); i++) {
+                    int targetShard = shard;
+                    int partition = i;
+                    AccountIdRange range = plan.get(shard).get(i);
+                    results.add(executor.submit(() -> processPartition(statementDate, runDirectory, targetShard, partition, range)));
+                }
+            }
+            long written = 0;
+            for (Future<Long> result : results) {
+                written += result.get();
+            }
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            logger.info("Wrote {} statements for {} in {} ms ({} accounts/sec)",
+                    written, statementDate, elapsedMillis, written * 1000 / elapsedMillis);
+            return written;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement generation for " + statementDate + " was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Statement generation for " + statementDate + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits the accounts of every shard into id ranges. The boundaries are fixed by the first run of a date so
+     * that the checkpoints of a restarted run still refer to the same ranges, even if accounts were opened in the
+     * meantime.
+     */
+    private List<List<AccountIdRange>> loadOrCreatePlan(Path runDirectory) {
+        try {
+            Files.createDirectories(runDirectory);
+            Path planFile = runDirectory.resolve(PLAN_FILE);
+            List<List<AccountIdRange>> plan = new ArrayList<>();
+            if (Files.exists(planFile)) {
+                for (String line : Files.readAllLines(planFile)) {
+                    String[] shardPlan = line.trim().split(" ");
+                    plan.add(AccountIdRange.split(Long.parseLong(shardPlan[0]), Long.parseLong(shardPlan[1]), Integer.parseInt(shardPlan[2])));
+                }
+                return plan;
+            }
+            StringBuilder planLines = new StringBuilder();
+            for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+                long[] bounds = ShardContext.callOnShard(shard,
+                        () -> new long[]{Optional.ofNullable(accountRepository.findMinId()).orElse(1L),
+                                Optional.ofNullable(accountRepository.findMaxId()).orElse(0L)});
+                planLines.append(bounds[0]).append(' ').append(bounds[1]).append(' ').append(partitions).append('\n');
+                plan.add(AccountIdRange.split(bounds[0], bounds[1], partitions));
+            }
+            writeAtomically(planFile, planLines.toString());
+            return plan;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long processPartition(LocalDate statementDate, Path runDirectory, int shard, int partition, AccountIdRange range) throws IOException {
+        Path checkpointFile = runDirectory.resolve("shard-" + shard + "-partition-" + partition + ".checkpoint");
+        long lastAccountId = Files.exists(checkpointFile)
+                ? Long.parseLong(Files.readString(checkpointFile).trim())
+                : range.getFromId() - 1;
+        AccountIdRange remaining = new AccountIdRange(lastAccountId + 1, range.getToId());
+        if (remaining.isEmpty()) {
+            return 0;
+        }
+        logger.info("Writing statements for {} accounts {} (shard {}, partition {})", statementDate, remaining, shard, partition);
+        Long written = ShardContext.callOnShard(shard, () -> readOnlyTransactionTemplate.execute(
+                status -> writeStatements(statementDate, runDirectory, checkpointFile, remaining)));
+        return written == null ? 0 : written;
+    }
+
+    private long writeStatements(LocalDate statementDate, Path runDirectory, Path checkpointFile, AccountIdRange range) {
+        LocalDateTime startDate = statementDate.atStartOfDay();
+        LocalDateTime endDate = statementDate.plusDays(1).atStartOfDay();
+        long written = 0;
+        try (Stream<Account> accounts = accountRepository.streamAllByIdBetweenOrderByIdAsc(range.getFromId(), range.getToId());
+             Stream<Object[]> balances = accountRepository.streamBalancesAt(range.getFromId(), range.getToId(), endDate);
+             Stream<Transaction> transactions = transactionRepository.streamAllByAccountIdRangeAndPeriod(
+                     range.getFromId(), range.getToId(), startDate, endDate)) {
+            Iterator<Object[]> closingBalances = balances.iterator();
+            Object[] closingBalance = closingBalances.hasNext() ? closingBalances.next() : null;
+            Iterator<Transaction> lines = transactions.iterator();
+            Transaction next = lines.hasNext() ? lines.next() : null;
+            for (Iterator<Account> it = accounts.iterator(); it.hasNext(); ) {
+                Account account = it.next();
+                // the job may run late or resume after more postings, the current balance is not the closing one
+                while (closingBalance != null && ((Number) closingBalance[0]).longValue() < account.getId()) {
+                    closingBalance = closingBalances.hasNext() ? closingBalances.next() : null;
+                }
+                BigDecimal balance = closingBalance != null && ((Number) closingBalance[0]).longValue() == account.getId()
+                        ? (BigDecimal) closingBalance[1]
+                        : account.getBalance();
+                List<Transaction> accountLines = new ArrayList<>();
+                while (next != null && next.getAccount().getId() <= account.getId()) {
+                    if (next.getAccount().getId() == account.getId()) {
+                        accountLines.add(next);
+                    }
+                    next = lines.hasNext() ? lines.next() : null;
+                }
+                writeStatement(runDirectory, statementDate, account, balance, accountLines);
+                if (++written % checkpointInterval == 0) {
+                    writeAtomically(checkpointFile, String.valueOf(account.getId()));
+                    entityManager.clear();
+                }
+            }
+            writeAtomically(checkpointFile, String.valueOf(range.getToId()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return written;
+    }
+
+    private void writeStatement(Path runDirectory, LocalDate statementDate, Account account, BigDecimal closingBalance,
+                                List<Transaction> lines) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(runDirectory.resolve(account.getId() + ".csv"))) {
+            writer.write(csv(account.getIban(), account.getCustomer(), account.getName(), account.getCurrency(),
+                    account.getAccountStatus(), statementDate, closingBalance));
+            writer.newLine();
+            writer.write(LINES_HEADER);
+            writer.newLine();
+            for (Transaction transaction : lines) {
+                writer.write(csv(transaction.getCreatedDateTime(), transaction.getTransactionType(), transaction.getAmount(),
+                        transaction.getCounterparty(), transaction.getDescription()));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static String csv(Object... values) {
+        return Arrays.stream(values)
+                .map(value -> value == null ? "" : value.toString())
+                .map(value -> value.contains(";") || value.contains("\"") || value.contains("\n")
+                        ? "\"" + value.replace("\"", "\"\"") + "\""
+                        : value)
+                .collect(Collectors.joining(";"));
+    }
+
+    private static void writeAtomically(Path file, String content) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, content);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -1,12 +1,27 @@
 package com.spring.bank.service.impl;
 
+import com.spring.bank.exception.AccountClosedException;
+import com.spring.bank.exception.ResourceNotFoundException;
+import com.spring.bank.model.Account;
+import com.spring.bank.model.AccountStatus;
 import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.repository.AccountContext;
+import com.spring.bank.repository.AccountRepository;
 import com.spring.bank.repository.TransactionRepository;
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import com.spring.bank.service.FraudCheckService;
 import com.spring.bank.service.TransactionService;
+import com.spring.bank.service.search.TransactionIndex;
+import com.spring.bank.service.status.AccountStatusIndex;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 @Service
@@ -14,15 +29,68 @@ import java.util.List;
 public class TransactionServiceImpl implements TransactionService {
 
     private TransactionRepository transactionRepository;
+    private AccountRepository accountRepository;
+    private FraudCheckService fraudCheckService;
+    private ShardRouter shardRouter;
+    private TransactionIndex transactionIndex;
+    private AccountStatusIndex accountStatusIndex;
 
-    public TransactionServiceImpl(TransactionRepository transactionRepository) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository, AccountRepository accountRepository,
+                                  FraudCheckService fraudCheckService, ShardRouter shardRouter, TransactionIndex transactionIndex,
+                                  AccountStatusIndex accountStatusIndex) {
         this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.fraudCheckService = fraudCheckService;
+        this.shardRouter = shardRouter;
+        this.transactionIndex = transactionIndex;
+        this.accountStatusIndex = accountStatusIndex;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Transaction> getTransactionsByCriteria(Long accountId, LocalDateTime startDate) {
+        ShardContext.bind(shardRouter.shardFor(accountId));
+        AccountContext.bind(accountId);
         return transactionRepository.findAllByAccountIdAndCreatedDateTimeGreaterThanEqual(accountId, startDate);
     }
 
+    @Override
+    public Transaction post(Long accountId, Transaction transaction) {
+        accountStatusIndex.checkActive(accountId);
+
+        ShardContext.bind(shardRouter.shardFor(accountId));
+        AccountContext.bind(accountId);
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account with id " + accountId + " not found"));
+        if (account.getAccountStatus() == AccountStatus.CLOSED) {
+            // closed by another instance since the index was last refreshed
+            accountStatusIndex.markClosed(accountId);
+            throw new AccountClosedException("Account with id " + accountId + " is closed");
+        }
+        transaction.setId(0);
+        transaction.setAccount(account);
+        // screened under the row lock, postings on the same account are checked one at a time
+        boolean flagged = fraudCheckService.screen(accountId, transaction);
+        transaction.setFlagged(flagged);
+        account.setBalance(account.getBalance().add(transaction.getSignedAmount()));
+        Transaction saved = transactionRepository.save(transaction);
+        transactionIndex.addOnCommit(Collections.singletonList(saved));
+        return saved;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Transaction> search(Long accountId, String text, BigDecimal minAmount, BigDecimal maxAmount, TransactionType type) {
+        // the index resolves the criteria, the database is only asked for the matching rows by primary key
+        List<Long> ids = transactionIndex.search(accountId, text, minAmount, maxAmount, type);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        ShardContext.bind(shardRouter.shardFor(accountId));
+        AccountContext.bind(accountId);
+        List<Transaction> transactions = transactionRepository.findAllById(ids);
+        transactions.sort(Comparator.comparingLong(Transaction::getId).reversed());
+        return transactions;
+    }
+
 }
@@ -0,0 +1,110 @@
+package com.spring.bank.service.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: level 0 has one slot per tick, every higher level has slots {@value #WHEEL_SIZE}
+ * times wider. Timers are filed in the level matching their distance and move down one level each time the
+ * wheel enters their slot, so scheduling and expiring a timer are O(1) whatever the number of pending timers.
+ * Timers further away than the top level can reach wait in an overflow list.
+ * <p>
+ * Timers never fire early: a deadline is rounded up to the next tick.
+ */
+public class HierarchicalTimerWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private long tickMillis;
+    private int levels;
+    private ArrayDeque<Timer<T>>[][] slots;
+    private List<Timer<T>> overflow = new ArrayList<>();
+    private List<T> expired = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimerWheel(long tickMillis, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.slots = new ArrayDeque[levels][WHEEL_SIZE];
+        for (int level = 0; level < levels; level++) {
+            for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+                slots[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    public synchronized void schedule(long deadlineMillis, T item) {
+        size++;
+        place(new Timer<>(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), item));
+    }
+
+    /**
+     * Moves the wheel forward to the given time and returns the items whose deadline has passed.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = levels - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    if (level == levels - 1 && !overflow.isEmpty()) {
+                        List<Timer<T>> waiting = overflow;
+                        overflow = new ArrayList<>();
+                        waiting.forEach(this::place);
+                    }
+                    cascade(level, (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK));
+                }
+            }
+            ArrayDeque<Timer<T>> expiring = slots[0][(int) (currentTick & WHEEL_MASK)];
+            while (!expiring.isEmpty()) {
+                expired.add(expiring.poll().item);
+            }
+        }
+        List<T> result = expired;
+        expired = new ArrayList<>();
+        size -= result.size();
+        return result;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level, int slot) {
+        ArrayDeque<Timer<T>> cascading = slots[level][slot];
+        slots[level][slot] = new ArrayDeque<>();
+        cascading.forEach(this::place);
+    }
+
+    private void place(Timer<T> timer) {
+        long distance = timer.deadlineTick - currentTick;
+        if (distance <= 0) {
+            expired.add(timer.item);
+            return;
+        }
+        for (int level = 0; level < levels; level++) {
+            if (distance < 1L << (WHEEL_BITS * (level + 1))) {
+                slots[level][(int) ((timer.deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)].add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private static class Timer<T> {
+
+        private final long deadlineTick;
+        private final T item;
+
+        private Timer(long deadlineTick, T item) {
+            this.deadlineTick = deadlineTick;
+            this.item = item;
+        }
+    }
+}
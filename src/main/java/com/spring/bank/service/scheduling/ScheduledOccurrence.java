@@ -0,0 +1,40 @@
+package com.spring.bank.service.scheduling;
+
+import java.time.LocalDateTime;
+
+/**
+ * One pending execution of a standing order, the only state the scheduler keeps in memory per order.
+ */
+public class ScheduledOccurrence {
+
+    private final long orderId;
+    private final long accountId;
+    private final LocalDateTime dueAt;
+
+    public ScheduledOccurrence(Long orderId, Long accountId, LocalDateTime dueAt) {
+        this.orderId = orderId;
+        this.accountId = accountId;
+        this.dueAt = dueAt;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+
+    public LocalDateTime getDueAt() {
+        return dueAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduledOccurrence{" +
+                "orderId=" + orderId +
+                ", accountId=" + accountId +
+                ", dueAt=" + dueAt +
+                '}';
+    }
+}
@@ -0,0 +1,145 @@
+package com.spring.bank.service.scheduling;
+
+import com.spring.bank.service.StandingOrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires standing orders from an in-memory {@link HierarchicalTimerWheel}. The occurrences due within the horizon
+ * are loaded in bulk at startup, which also picks up the orders that fell due while the service was down, and then
+ * every load interval; orders created or advanced in between are added as their transactions commit. Due
+ * occurrences are executed in batches on a worker pool. An order that fell behind is executed once, see
+ * {@link StandingOrderService#execute(ScheduledOccurrence)}, and an occurrence that failed is loaded again by the
+ * next load.
+ */
+@Component
+public class StandingOrderScheduler {
+
+    private static Logger logger = LoggerFactory.getLogger(StandingOrderScheduler.class);
+
+    private static final int WHEEL_LEVELS = 4;
+
+    private StandingOrderService standingOrderService;
+    private HierarchicalTimerWheel<ScheduledOccurrence> timerWheel;
+    private Map<Long, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+    private long tickMillis;
+    private Duration horizon;
+    private int batchSize;
+    private ScheduledExecutorService timer;
+    private ExecutorService workers;
+    private volatile LocalDateTime loadedUntil = LocalDateTime.MIN;
+
+    public StandingOrderScheduler(StandingOrderService standingOrderService,
+                                  @Value("${bank.standing-orders.tick}") long tickMillis,
+                                  @Value("${bank.standing-orders.horizon}") Duration horizon,
+                                  @Value("${bank.standing-orders.batch-size}") int batchSize,
+                                  @Value("${bank.standing-orders.workers}") int workers) {
+        this.standingOrderService = standingOrderService;
+        this.timerWheel = new HierarchicalTimerWheel<>(tickMillis, WHEEL_LEVELS, System.currentTimeMillis());
+        this.tickMillis = tickMillis;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(threadFactory("standing-order-timer"));
+        this.workers = Executors.newFixedThreadPool(workers, threadFactory("standing-order-worker"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loadDueOccurrences();
+        timer.scheduleAtFixedRate(this::fireDueOccurrences, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Scheduled(initialDelayString = "${bank.standing-orders.load-interval}", fixedDelayString = "${bank.standing-orders.load-interval}")
+    public void loadDueOccurrences() {
+        LocalDateTime until = LocalDateTime.now().plus(horizon);
+        // raised before loading, so that occurrences committed meanwhile are scheduled by the event listener
+        loadedUntil = until;
+        List<ScheduledOccurrence> occurrences = standingOrderService.findOccurrencesDueBefore(until);
+        occurrences.forEach(this::schedule);
+        logger.info("Loaded {} standing order occurrences due before {}, {} pending", occurrences.size(), until, timerWheel.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOccurrenceScheduled(ScheduledOccurrence occurrence) {
+        if (occurrence.getDueAt().isBefore(loadedUntil)) {
+            schedule(occurrence);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        timer.shutdownNow();
+        workers.shutdown();
+    }
+
+    private void schedule(ScheduledOccurrence occurrence) {
+        if (occurrence.getDueAt().equals(scheduled.put(occurrence.getOrderId(), occurrence.getDueAt()))) {
+            return;
+        }
+        timerWheel.schedule(occurrence.getDueAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), occurrence);
+    }
+
+    private void fireDueOccurrences() {
+        try {
+            List<ScheduledOccurrence> due = timerWheel.advance(System.currentTimeMillis());
+            for (int from = 0; from < due.size(); from += batchSize) {
+                List<ScheduledOccurrence> batch = new ArrayList<>(due.subList(from, Math.min(from + batchSize, due.size())));
+                workers.execute(() -> executeBatch(batch));
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic task and stop the timer
+            logger.error("Could not fire due standing orders", e);
+        }
+    }
+
+    void executeBatch(List<ScheduledOccurrence> batch) {
+        int executed = 0;
+        for (ScheduledOccurrence occurrence : batch) {
+            try {
+                if (standingOrderService.execute(occurrence)) {
+                    executed++;
+                }
+            } catch (RuntimeException e) {
+                // the rest of the batch still runs, the occurrence is picked up again by the next load
+                logger.error("Could not execute standing order occurrence {}", occurrence, e);
+            } finally {
+                scheduled.remove(occurrence.getOrderId(), occurrence.getDueAt());
+            }
+        }
+        logger.info("Executed {} of {} due standing orders", executed, batch.size());
+    }
+
+    int scheduledCount() {
+        return scheduled.size();
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,192 @@
+package com.spring.bank.service.search;
+
+import com.spring.bank.model.TransactionType;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over the transactions of one account. Transactions are kept in id order as columns
+ * (id, amount in minor units, type) and every token of their counterparty and description maps to the ascending
+ * positions of the transactions containing it, so a search never looks at a transaction that cannot match.
+ * Transactions almost always arrive in id order; one that arrives late, written by another instance and picked up
+ * by a refresh, is inserted at its place, shifting the newer ones up.
+ * <p>
+ * At most {@code capacity} transactions are kept; once full, the oldest quarter is evicted.
+ */
+final class AccountTransactionIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final int capacity;
+    private long[] ids;
+    private long[] amounts;
+    private TransactionType[] types;
+    private int size;
+
+    AccountTransactionIndex(int capacity) {
+        int initialCapacity = Math.min(8, capacity);
+        this.capacity = capacity;
+        this.ids = new long[initialCapacity];
+        this.amounts = new long[initialCapacity];
+        this.types = new TransactionType[initialCapacity];
+    }
+
+    void add(long transactionId, long amount, TransactionType type, List<String> tokens) {
+        lock.writeLock().lock();
+        try {
+            if (size == capacity && transactionId < ids[0]) {
+                // older than every transaction of the full index, it would be the next one evicted
+                return;
+            }
+            if (size == capacity) {
+                evictOldest(Math.max(1, capacity / 4));
+            }
+            if (size == ids.length) {
+                int grown = Math.min(size * 2, capacity);
+                ids = Arrays.copyOf(ids, grown);
+                amounts = Arrays.copyOf(amounts, grown);
+                types = Arrays.copyOf(types, grown);
+            }
+            int position = size;
+            if (size > 0 && ids[size - 1] > transactionId) {
+                position = -Arrays.binarySearch(ids, 0, size, transactionId) - 1;
+                System.arraycopy(ids, position, ids, position + 1, size - position);
+                System.arraycopy(amounts, position, amounts, position + 1, size - position);
+                System.arraycopy(types, position, types, position + 1, size - position);
+                for (Postings tokenPostings : postings.values()) {
+                    tokenPostings.shiftFrom(position);
+                }
+            }
+            size++;
+            ids[position] = transactionId;
+            amounts[position] = amount;
+            types[position] = type;
+            for (String token : tokens) {
+                postings.computeIfAbsent(token, key -> new Postings()).add(position);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of at most {@code limit} transactions, newest first, containing a token starting with every
+     * one of the given terms and matching the amount range and type.
+     */
+    long[] search(List<String> terms, long minAmount, long maxAmount, TransactionType type, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = null;
+            for (String term : terms) {
+                BitSet termMatches = new BitSet(size);
+                for (Postings termPostings : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                    termPostings.setAll(termMatches);
+                }
+                if (matches == null) {
+                    matches = termMatches;
+                } else {
+                    matches.and(termMatches);
+                }
+                if (matches.isEmpty()) {
+                    return new long[0];
+                }
+            }
+
+            long[] result = new long[Math.min(limit, size)];
+            int found = 0;
+            int position = matches == null ? size - 1 : matches.previousSetBit(size - 1);
+            while (position >= 0 && found < result.length) {
+                if (amounts[position] >= minAmount && amounts[position] <= maxAmount && (type == null || types[position] == type)) {
+                    result[found++] = ids[position];
+                }
+                position = matches == null ? position - 1 : matches.previousSetBit(position - 1);
+            }
+            return Arrays.copyOf(result, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the first {@code count} positions, shifting the remaining transactions and their postings down.
+     */
+    private void evictOldest(int count) {
+        System.arraycopy(ids, count, ids, 0, size - count);
+        System.arraycopy(amounts, count, amounts, 0, size - count);
+        System.arraycopy(types, count, types, 0, size - count);
+        Arrays.fill(types, size - count, size, null);
+        size -= count;
+        postings.values().removeIf(tokenPostings -> tokenPostings.dropBefore(count));
+    }
+
+    private static final class Postings {
+
+        private int[] positions = new int[4];
+        private int size;
+
+        private void add(int position) {
+            // searched from the end, where the position of a new transaction almost always is
+            int index = size;
+            while (index > 0 && positions[index - 1] > position) {
+                index--;
+            }
+            // a token repeated within one transaction is only recorded once
+            if (index > 0 && positions[index - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            System.arraycopy(positions, index, positions, index + 1, size - index);
+            positions[index] = position;
+            size++;
+        }
+
+        /**
+         * Moves the positions from {@code position} on up by one, to make room for a transaction inserted there.
+         */
+        private void shiftFrom(int position) {
+            for (int i = size - 1; i >= 0 && positions[i] >= position; i--) {
+                positions[i]++;
+            }
+        }
+
+        /**
+         * Removes the positions below {@code count} and shifts the others down by it.
+         *
+         * @return true if no position is left
+         */
+        private boolean dropBefore(int count) {
+            int first = Arrays.binarySearch(positions, 0, size, count);
+            if (first < 0) {
+                first = -first - 1;
+            }
+            for (int i = first; i < size; i++) {
+                positions[i - first] = positions[i] - count;
+            }
+            size -= first;
+            return size == 0;
+        }
+
+        private void setAll(BitSet target) {
+            for (int i = 0; i < size; i++) {
+                target.set(positions[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.spring.bank.service.search;
+
+import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded full-text index over the counterparty and description of the newest transactions of every account, one
+ * {@link AccountTransactionIndex} per account holding at most {@code bank.search.max-transactions-per-account}
+ * of them. It is built from the database when the application starts and kept up to date by the write paths of
+ * this instance once their database transaction commits; transactions written by other instances are picked up by
+ * polling the transactions recorded since the previous refresh.
+ */
+@Component
+public class TransactionIndex {
+
+    private static Logger logger = LoggerFactory.getLogger(TransactionIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // transactions recorded shortly before the previous refresh may have been committed after it, or on a node whose
+    // clock is behind
+    private static final long REFRESH_OVERLAP_MILLIS = 30_000;
+
+    private final ConcurrentMap<Long, AccountTransactionIndex> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * Ids indexed since the startup rebuild began, with the time they were indexed, trimmed to the refresh overlap
+     * once it is done: a transaction may be seen by the rebuild or a refresh as well as by the write path, or by two
+     * consecutive refreshes.
+     */
+    private final ConcurrentMap<Long, Long> recentlyIndexed = new ConcurrentHashMap<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private ShardRouter shardRouter;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private int maxResults;
+    private int maxTransactionsPerAccount;
+    private long refreshedAtMillis;
+
+    public TransactionIndex(JdbcTemplate jdbcTemplate, ShardRouter shardRouter, PlatformTransactionManager transactionManager,
+                            @Value("${bank.search.max-results}") int maxResults,
+                            @Value("${bank.search.max-transactions-per-account}") int maxTransactionsPerAccount) {
+        if (maxTransactionsPerAccount < 1) {
+            throw new IllegalArgumentException("bank.search.max-transactions-per-account must be at least 1, was " + maxTransactionsPerAccount);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.maxResults = maxResults;
+        this.maxTransactionsPerAccount = maxTransactionsPerAccount;
+    }
+
+    public void add(long accountId, long transactionId, BigDecimal amount, TransactionType type, String counterparty, String description) {
+        if (recentlyIndexed.putIfAbsent(transactionId, System.currentTimeMillis()) != null) {
+            return;
+        }
+        List<String> tokens = new ArrayList<>(tokenize(counterparty));
+        tokens.addAll(tokenize(description));
+        accounts.computeIfAbsent(accountId, key -> new AccountTransactionIndex(maxTransactionsPerAccount))
+                .add(transactionId, toMinorUnits(amount), type, tokens.stream().distinct().collect(Collectors.toList()));
+    }
+
+    /**
+     * Indexes the transactions once the current database transaction commits, or right away outside of one.
+     */
+    public void addOnCommit(Collection<Transaction> transactions) {
+        Runnable index = () -> transactions.forEach(transaction -> add(transaction.getAccount().getId(), transaction.getId(),
+                transaction.getAmount(), transaction.getTransactionType(), transaction.getCounterparty(), transaction.getDescription()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                index.run();
+            }
+        });
+    }
+
+    /**
+     * Returns the ids of the newest indexed transactions of the account whose counterparty or description contain a word
+     * starting with every word of the text, within the amount range and of the given type. Every criterion is optional.
+     */
+    public List<Long> search(long accountId, String text, BigDecimal minAmount, BigDecimal maxAmount, TransactionType type) {
+        AccountTransactionIndex index = accounts.get(accountId);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        long[] ids = index.search(tokenize(text),
+                minAmount == null ? Long.MIN_VALUE : toMinorUnits(minAmount),
+                maxAmount == null ? Long.MAX_VALUE : toMinorUnits(maxAmount),
+                type, maxResults);
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        long indexed = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            indexed += indexRecordedFrom(shard, null);
+        }
+        refreshed(startMillis);
+        logger.info("Indexed {} transactions of {} accounts in {} ms", indexed, accounts.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Indexes the transactions recorded since the previous refresh, including the ones written by other instances.
+     */
+    @Scheduled(initialDelayString = "${bank.search.refresh-interval}", fixedDelayString = "${bank.search.refresh-interval}")
+    public synchronized void refresh() {
+        if (refreshedAtMillis == 0) {
+            // the startup rebuild has not run yet and will read every transaction
+            return;
+        }
+        long startMillis = System.currentTimeMillis();
+        Timestamp from = new Timestamp(refreshedAtMillis - REFRESH_OVERLAP_MILLIS);
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            indexRecordedFrom(shard, from);
+        }
+        refreshed(startMillis);
+    }
+
+    /**
+     * Indexes the transactions recorded at or after the given time, or all of them when it is null.
+     */
+    private long indexRecordedFrom(int shard, Timestamp from) {
+        long[] read = new long[1];
+        ShardContext.callOnShard(shard, () -> readOnlyTransactionTemplate.execute(status -> {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement("select account_id, id, balance, transaction_type, " +
+                        "counterparty, description from transaction" + (from == null ? "" : " where recorded_date_time >= ?") +
+                        " order by id");
+                if (from != null) {
+                    statement.setTimestamp(1, from);
+                }
+                statement.setFetchSize(1000);
+                return statement;
+            }, rs -> {
+                add(rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), TransactionType.valueOf(rs.getString(4)),
+                        rs.getString(5), rs.getString(6));
+                read[0]++;
+            });
+            return null;
+        }));
+        return read[0];
+    }
+
+    private void refreshed(long startMillis) {
+        refreshedAtMillis = startMillis;
+        // the next refresh reads nothing recorded earlier; a transaction is indexed after it is recorded, give or take
+        // the clock difference between the nodes, which the second overlap covers
+        long oldestReread = startMillis - 2 * REFRESH_OVERLAP_MILLIS;
+        recentlyIndexed.values().removeIf(indexedAt -> indexedAt < oldestReread);
+    }
+
+    /**
+     * Lower cases the text, strips diacritics and splits it into words, so that "Ștefan" is found by "stefan".
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return SEPARATORS.splitAsStream(normalized)
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    private static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
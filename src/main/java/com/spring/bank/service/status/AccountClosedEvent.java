@@ -0,0 +1,18 @@
+package com.spring.bank.service.status;
+
+/**
+ * Published when an account is closed, every in-memory view of account status drops the account once the
+ * closing transaction has committed.
+ */
+public class AccountClosedEvent {
+
+    private final long accountId;
+
+    public AccountClosedEvent(long accountId) {
+        this.accountId = accountId;
+    }
+
+    public long getAccountId() {
+        return accountId;
+    }
+}
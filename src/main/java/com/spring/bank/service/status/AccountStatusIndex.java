@@ -0,0 +1,101 @@
+package com.spring.bank.service.status;
+
+import com.spring.bank.exception.AccountClosedException;
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ids of the closed accounts, so that a write to a closed account is rejected without a database round trip.
+ * Closures made by this instance arrive as {@link AccountClosedEvent}s once their transaction commits, closures
+ * made by other instances are picked up by polling the recently modified accounts of every shard.
+ * <p>
+ * The index may lag behind the database but never reports an active account as closed, so write paths that lock
+ * the account row still check its status there.
+ */
+@Component
+public class AccountStatusIndex {
+
+    private static Logger logger = LoggerFactory.getLogger(AccountStatusIndex.class);
+
+    // accounts modified shortly before the previous refresh may have been committed after it
+    private static final long REFRESH_OVERLAP_SECONDS = 30;
+
+    private final Set<Long> closedAccountIds = ConcurrentHashMap.newKeySet();
+
+    private JdbcTemplate jdbcTemplate;
+    private ShardRouter shardRouter;
+    private TransactionTemplate readOnlyTransactionTemplate;
+    private LocalDateTime refreshedAt;
+
+    public AccountStatusIndex(JdbcTemplate jdbcTemplate, ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    public boolean isClosed(long accountId) {
+        return closedAccountIds.contains(accountId);
+    }
+
+    /**
+     * Throws an {@link AccountClosedException} if the account is known to be closed.
+     */
+    public void checkActive(long accountId) {
+        if (closedAccountIds.contains(accountId)) {
+            throw new AccountClosedException("Account with id " + accountId + " is closed");
+        }
+    }
+
+    /**
+     * Records a closure that is already committed.
+     */
+    public void markClosed(long accountId) {
+        closedAccountIds.add(accountId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountClosed(AccountClosedEvent event) {
+        markClosed(event.getAccountId());
+    }
+
+    /**
+     * Loads every closed account on startup, afterwards only the accounts modified since the previous refresh.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${bank.account-status.refresh-interval}", fixedDelayString = "${bank.account-status.refresh-interval}")
+    public synchronized void refresh() {
+        LocalDateTime start = LocalDateTime.now();
+        int loaded = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            List<Long> closed = ShardContext.callOnShard(shard, () -> readOnlyTransactionTemplate.execute(status -> refreshedAt == null
+                    ? jdbcTemplate.queryForList("select id from account where account_status = 'CLOSED'", Long.class)
+                    : jdbcTemplate.queryForList("select id from account where account_status = 'CLOSED' and last_modified_date_time >= ?",
+                    Long.class, Timestamp.valueOf(refreshedAt.minusSeconds(REFRESH_OVERLAP_SECONDS)))));
+            if (closed != null) {
+                closedAccountIds.addAll(closed);
+                loaded += closed.size();
+            }
+        }
+        if (refreshedAt == null) {
+            logger.info("Loaded {} closed accounts", loaded);
+        }
+        refreshedAt = start;
+    }
+}
@@ -0,0 +1,52 @@
+package com.spring.bank.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalReplicaSynchronizerTest {
+
+    private static final String LAG_QUERY = "select datediff('MILLISECOND', synced_at, localtimestamp) / 1000.0 from replication_status";
+
+    @Test
+    public void when_synchronized_then_replica_has_primary_rows_until_next_sync() {
+        DataSource primary = createH2Instance("primary");
+        DataSource replica = createH2Instance("replica");
+        JdbcTemplate primaryJdbcTemplate = new JdbcTemplate(primary);
+        JdbcTemplate replicaJdbcTemplate = new JdbcTemplate(replica);
+        primaryJdbcTemplate.execute("create table account (id bigint primary key, balance decimal(19, 2))");
+        primaryJdbcTemplate.execute("create table transaction (id bigint primary key, account_id bigint references account(id))");
+        primaryJdbcTemplate.update("insert into account values (1, 10.00), (2, 20.00)");
+        primaryJdbcTemplate.update("insert into transaction values (10, 1), (11, 2)");
+        LocalReplicaSynchronizer synchronizer = new LocalReplicaSynchronizer(primary, replica);
+
+        synchronizer.synchronize();
+
+        assertThat(replicaJdbcTemplate.queryForObject("select count(*) from transaction", Long.class)).isEqualTo(2);
+        assertThat(replicaJdbcTemplate.queryForObject("select balance from account where id = 2", BigDecimal.class))
+                .isEqualByComparingTo("20.00");
+        assertThat(replicaJdbcTemplate.queryForObject(LAG_QUERY, BigDecimal.class)).isLessThan(new BigDecimal("5"));
+
+        primaryJdbcTemplate.update("update account set balance = 25.00 where id = 2");
+        primaryJdbcTemplate.update("delete from transaction where id = 10");
+
+        assertThat(replicaJdbcTemplate.queryForObject("select balance from account where id = 2", BigDecimal.class))
+                .isEqualByComparingTo("20.00");
+
+        synchronizer.synchronize();
+
+        assertThat(replicaJdbcTemplate.queryForObject("select balance from account where id = 2", BigDecimal.class))
+                .isEqualByComparingTo("25.00");
+        assertThat(replicaJdbcTemplate.queryForList("select id from transaction", Long.class)).containsExactly(11L);
+    }
+
+    private static DataSource createH2Instance(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
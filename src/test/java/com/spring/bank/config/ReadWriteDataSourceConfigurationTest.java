@@ -0,0 +1,21 @@
+package com.spring.bank.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteDataSourceConfigurationTest {
+
+    @Test
+    public void when_sharding_also_enabled_then_startup_fails() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(ReadWriteDataSourceConfiguration.class)
+                .withPropertyValues("bank.datasource.routing.enabled=true", "bank.sharding.enabled=true")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure()
+                        .hasRootCauseInstanceOf(IllegalStateException.class)
+                        .hasRootCauseMessage("bank.datasource.routing.enabled cannot be combined with bank.sharding.enabled, " +
+                                "disable one of them"));
+    }
+}
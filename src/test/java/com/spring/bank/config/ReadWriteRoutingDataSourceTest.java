@@ -0,0 +1,137 @@
+package com.spring.bank.config;
+
+import com.spring.bank.repository.AccountContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransactionTemplate;
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @BeforeEach
+    public void setup() {
+        primary = createH2Instance("primary");
+        replica = createH2Instance("replica");
+    }
+
+    @AfterEach
+    public void clearAccount() {
+        AccountContext.clear();
+    }
+
+    @Test
+    public void when_write_transaction_then_routed_to_primary() {
+        route(new ReplicaLagMonitor(replica, null, Duration.ofSeconds(1)), Duration.ofSeconds(5));
+        assertThat(writeTransactionTemplate.execute(status -> currentNode())).isEqualTo("primary");
+    }
+
+    @Test
+    public void when_read_only_transaction_then_routed_to_replica() {
+        route(new ReplicaLagMonitor(replica, null, Duration.ofSeconds(1)), Duration.ofSeconds(5));
+        assertThat(readOnlyTransactionTemplate.execute(status -> currentNode())).isEqualTo("replica");
+    }
+
+    @Test
+    public void when_account_read_after_write_then_routed_to_primary() {
+        route(new ReplicaLagMonitor(replica, null, Duration.ofSeconds(1)), Duration.ofMinutes(1));
+        writeTransactionTemplate.execute(status -> {
+            AccountContext.bind(42);
+            return jdbcTemplate.update("insert into node values ('written')");
+        });
+
+        assertThat(readOnlyTransactionTemplate.execute(status -> {
+            AccountContext.bind(42);
+            return currentNode();
+        })).isEqualTo("primary");
+    }
+
+    @Test
+    public void when_other_account_read_after_write_then_routed_to_replica() {
+        route(new ReplicaLagMonitor(replica, null, Duration.ofSeconds(1)), Duration.ofMinutes(1));
+        writeTransactionTemplate.execute(status -> {
+            AccountContext.bind(42);
+            return jdbcTemplate.update("insert into node values ('written')");
+        });
+
+        assertThat(readOnlyTransactionTemplate.execute(status -> {
+            AccountContext.bind(43);
+            return currentNode();
+        })).isEqualTo("replica");
+        assertThat(AccountContext.currentAccount()).isNull();
+    }
+
+    @Test
+    public void when_write_rolled_back_then_account_read_from_replica() {
+        route(new ReplicaLagMonitor(replica, null, Duration.ofSeconds(1)), Duration.ofMinutes(1));
+        writeTransactionTemplate.execute(status -> {
+            AccountContext.bind(42);
+            jdbcTemplate.update("insert into node values ('written')");
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertThat(readOnlyTransactionTemplate.execute(status -> {
+            AccountContext.bind(42);
+            return currentNode();
+        })).isEqualTo("replica");
+    }
+
+    @Test
+    public void when_replica_lags_more_than_tolerated_then_routed_to_primary() {
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica, "select 30", Duration.ofSeconds(1));
+        route(lagMonitor, Duration.ofSeconds(5));
+
+        lagMonitor.checkLag();
+
+        assertThat(lagMonitor.isWithinTolerance()).isFalse();
+        assertThat(readOnlyTransactionTemplate.execute(status -> currentNode())).isEqualTo("primary");
+    }
+
+    private void route(ReplicaLagMonitor lagMonitor, Duration readYourWritesWindow) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(lagMonitor, new ReadYourWritesTracker(readYourWritesWindow));
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(ReadWriteRoutingDataSource.Route.PRIMARY, primary);
+        targetDataSources.put(ReadWriteRoutingDataSource.Route.REPLICA, replica);
+        routingDataSource.setTargetDataSources(targetDataSources);
+        routingDataSource.setDefaultTargetDataSource(primary);
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writeTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("select name from node order by name limit 1", String.class);
+    }
+
+    private static DataSource createH2Instance(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table node (name varchar(20))");
+        jdbcTemplate.update("insert into node values (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,40 @@
+package com.spring.bank.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.spring.bank.model.StandingOrder;
+import com.spring.bank.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringIdModuleTest {
+
+    private static final long SNOWFLAKE_ID = 9_007_199_254_740_993L;
+
+    @Test
+    public void when_registered_then_ids_written_as_strings() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).registerModule(new StringIdModule());
+        StandingOrder standingOrder = new StandingOrder();
+        standingOrder.setId(SNOWFLAKE_ID);
+        standingOrder.setAccountId(SNOWFLAKE_ID + 1);
+
+        JsonNode json = objectMapper.valueToTree(standingOrder);
+
+        assertThat(json.get("id").isTextual()).isTrue();
+        assertThat(json.get("id").asText()).isEqualTo("9007199254740993");
+        assertThat(json.get("accountId").asText()).isEqualTo("9007199254740994");
+    }
+
+    @Test
+    public void when_not_registered_then_ids_written_as_numbers() {
+        Transaction transaction = new Transaction();
+        transaction.setId(42L);
+
+        JsonNode json = new ObjectMapper().registerModule(new JavaTimeModule()).valueToTree(transaction);
+
+        assertThat(json.get("id").isNumber()).isTrue();
+        assertThat(json.get("id").asLong()).isEqualTo(42L);
+    }
+}
@@ -1,10 +1,14 @@
 package com.spring.bank.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.bank.exception.AccountClosedException;
+import com.spring.bank.exception.TransactionRejectedException;
 import com.spring.bank.model.Account;
 import com.spring.bank.model.AccountStatus;
 import com.spring.bank.model.Currency;
 import com.spring.bank.model.TimeFrame;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
 import com.spring.bank.service.AccountService;
 import com.spring.bank.service.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
@@ -26,9 +30,12 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -134,6 +141,32 @@ public class AccountControllerTest {
         assertThat(accountCaptor.getValue().getAccountStatus()).isEqualTo(AccountStatus.ACTIVE);
     }
 
+    @Test
+    public void when_get_to_retrieve_accounts_of_customer_then_correct_response() throws Exception {
+        String accessToken = obtainAccessToken(userReadClientId, userReadClientSecret);
+        when(accountService.findByCustomer("Cosmin")).thenReturn(Collections.singletonList(createAccount()));
+        mockMvc.perform(get("/api/v1/accounts")
+                .header("Authorization", "Bearer " + accessToken)
+                .param("customer", "Cosmin")
+                .contentType(CONTENT_TYPE_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"name\":\"account name test\",\"customer\":\"Cosmin\"}]"));
+    }
+
+    @Test
+    public void when_get_to_retrieve_accounts_without_sharding_then_ids_written_as_numbers() throws Exception {
+        String accessToken = obtainAccessToken(userReadClientId, userReadClientSecret);
+        Account account = createAccount();
+        account.setId(42L);
+        when(accountService.findByCustomer("Cosmin")).thenReturn(Collections.singletonList(account));
+        mockMvc.perform(get("/api/v1/accounts")
+                .header("Authorization", "Bearer " + accessToken)
+                .param("customer", "Cosmin")
+                .contentType(CONTENT_TYPE_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":42}]"));
+    }
+
     @Test
     public void when_put_to_cancel_account_then_correct_response() throws Exception {
         String accessToken = obtainAccessToken(userWriteClientId, userWriteClientSecret);
@@ -157,16 +190,18 @@ public class AccountControllerTest {
     @Test
     public void when_put_to_cancel_account_then_check_data_on_account_updated() throws Exception {
         String accessToken = obtainAccessToken(userWriteClientId, userWriteClientSecret);
-        when(accountService.findById(100L)).thenReturn(Optional.ofNullable(createAccount()));
+        Account account = createAccount();
+        account.setAccountStatus(AccountStatus.CLOSED);
+        when(accountService.close(100L)).thenReturn(Optional.of(account));
         mockMvc.perform(put("/api/v1/accounts/{id}", 100)
                 .header("Authorization", "Bearer " + accessToken)
                 .content(objectMapper.writeValueAsBytes(createAccount()))
                 .contentType(CONTENT_TYPE_JSON))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"accountStatus\":\"CLOSED\"}"));
 
-        ArgumentCaptor<Account> accountCaptor = ArgumentCaptor.forClass(Account.class);
-        verify(accountService, times(1)).save(accountCaptor.capture());
-        assertThat(accountCaptor.getValue().getAccountStatus()).isEqualTo(AccountStatus.CLOSED);
+        verify(accountService, times(1)).close(100L);
+        verify(accountService, never()).save(any(Account.class));
     }
 
     @Test
@@ -181,6 +216,73 @@ public class AccountControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    public void when_post_to_create_valid_transaction_then_correct_response() throws Exception {
+        String accessToken = obtainAccessToken(userWriteClientId, userWriteClientSecret);
+        mockMvc.perform(post("/api/v1/accounts/{id}/transactions", 100)
+                .header("Authorization", "Bearer " + accessToken)
+                .content(objectMapper.writeValueAsBytes(createTransaction()))
+                .contentType(CONTENT_TYPE_JSON))
+                .andExpect(status().isOk());
+
+        verify(transactionService, times(1)).post(eq(100L), any(Transaction.class));
+    }
+
+    @Test
+    public void when_post_transaction_with_negative_amount_then_bad_request() throws Exception {
+        String accessToken = obtainAccessToken(userWriteClientId, userWriteClientSecret);
+        Transaction transaction = createTransaction();
+        transaction.setAmount(new BigDecimal("-10"));
+        mockMvc.perform(post("/api/v1/accounts/{id}/transactions", 100)
+                .header("Authorization", "Bearer " + accessToken)
+                .content(objectMapper.writeValueAsBytes(transaction))
+                .contentType(CONTENT_TYPE_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).post(eq(100L), any(Transaction.class));
+    }
+
+    @Test
+    public void when_post_transaction_rejected_then_unprocessable_entity() throws Exception {
+        String accessToken = obtainAccessToken(userWriteClientId, userWriteClientSecret);
+        when(transactionService.post(eq(100L), any(Transaction.class)))
+                .thenThrow(new TransactionRejectedException("Transaction rejected by rule account-burst"));
+        mockMvc.perform(post("/api/v1/accounts/{id}/transactions", 100)
+                .header("Authorization", "Bearer " + accessToken)
+                .content(objectMapper.writeValueAsBytes(createTransaction()))
+                .contentType(CONTENT_TYPE_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().string("Transaction rejected by rule account-burst"));
+    }
+
+    @Test
+    public void when_post_transaction_to_closed_account_then_conflict() throws Exception {
+        String accessToken = obtainAccessToken(userWriteClientId, userWriteClientSecret);
+        when(transactionService.post(eq(100L), any(Transaction.class)))
+                .thenThrow(new AccountClosedException("Account with id 100 is closed"));
+        mockMvc.perform(post("/api/v1/accounts/{id}/transactions", 100)
+                .header("Authorization", "Bearer " + accessToken)
+                .content(objectMapper.writeValueAsBytes(createTransaction()))
+                .contentType(CONTENT_TYPE_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Account with id 100 is closed"));
+    }
+
+    @Test
+    public void when_get_to_search_transactions_then_criteria_passed_to_service() throws Exception {
+        String accessToken = obtainAccessToken(userReadClientId, userReadClientSecret);
+        when(transactionService.search(100L, "ionescu", new BigDecimal("5"), null, TransactionType.CREDIT))
+                .thenReturn(Collections.singletonList(createTransaction()));
+        mockMvc.perform(get("/api/v1/accounts/{id}/transactions/search", 100)
+                .header("Authorization", "Bearer " + accessToken)
+                .param("q", "ionescu")
+                .param("minAmount", "5")
+                .param("type", TransactionType.CREDIT.name())
+                .contentType(CONTENT_TYPE_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"counterparty\":\"Ionescu Marius\",\"description\":\"bank transfer\"}]"));
+    }
+
     @Test
     public void when_get_to_retrieve_transactions_with_missing_param_then_bad_request() throws Exception {
         String accessToken = obtainAccessToken(userReadClientId, userReadClientSecret);
@@ -218,6 +320,10 @@ public class AccountControllerTest {
         return account;
     }
 
+    private Transaction createTransaction() {
+        return new Transaction(BigDecimal.TEN, TransactionType.CREDIT, "Ionescu Marius", "bank transfer", null);
+    }
+
     private Account createAccountWithMissingFields() {
         Account account = new Account();
         account.setName("account name test");
@@ -0,0 +1,231 @@
+package com.spring.bank.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the running service over HTTP from a number of concurrent clients, each one sending the operations of the
+ * mix on a fixed schedule of {@code ratePerClient} requests per second. Latencies are recorded in microseconds per
+ * operation and measured from the time the request was scheduled rather than sent: when the server stalls, the
+ * requests a client could not send meanwhile count the wait too, instead of silently dropping out of the percentiles.
+ */
+final class LoadGenerator {
+
+    private static final String API = "/api/v1/accounts";
+
+    private final String baseUrl;
+    private final OperationMix mix;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final List<Long> openAccounts = new ArrayList<>();
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private String readToken;
+    private String writeToken;
+
+    LoadGenerator(String baseUrl, OperationMix mix, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.mix = mix;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(3));
+        }
+    }
+
+    /**
+     * Obtains a token for each scope with the client credentials grant of the authorization server.
+     */
+    void authenticate(String readClientId, String readClientSecret, String writeClientId, String writeClientSecret)
+            throws IOException, InterruptedException {
+        readToken = obtainAccessToken(readClientId, readClientSecret);
+        writeToken = obtainAccessToken(writeClientId, writeClientSecret);
+    }
+
+    /**
+     * Opens the accounts that the first history reads, postings and closures work on.
+     */
+    void createAccounts(int count) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            HttpResponse<String> response = send(Operation.CREATE, "seed");
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Could not create seed account: " + response.statusCode() + " " + response.body());
+            }
+        }
+    }
+
+    /**
+     * Runs the given number of clients for the warm-up and then for the measured duration.
+     */
+    LoadResult run(int clients, int ratePerClient, Duration warmup, Duration duration) throws InterruptedException {
+        if (ratePerClient < 1) {
+            throw new IllegalArgumentException("The rate per client must be at least 1 request per second, was " + ratePerClient);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerClient;
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        List<Future<?>> results = new ArrayList<>(clients);
+        for (int client = 0; client < clients; client++) {
+            String customer = "load-client-" + client;
+            // spread the clients over the interval, so they do not all send at the same instant
+            long firstRequest = System.nanoTime() + intervalNanos * client / clients;
+            results.add(executor.submit(() -> {
+                for (long scheduled = firstRequest; scheduled < end && !Thread.currentThread().isInterrupted(); scheduled += intervalNanos) {
+                    TimeUnit.NANOSECONDS.sleep(Math.max(0, scheduled - System.nanoTime()));
+                    execute(mix.next(ThreadLocalRandom.current()), customer, scheduled);
+                }
+                return null;
+            }));
+        }
+
+        TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        latencies.values().forEach(Recorder::reset);
+        outcomes.clear();
+        long start = System.nanoTime();
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Load client failed", e);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        executor.shutdown();
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        latencies.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return new LoadResult(clients, (double) clients * ratePerClient, elapsedNanos, histograms, counts);
+    }
+
+    /**
+     * Sends the operation, late if the previous request of the client took longer than the interval, and records its
+     * latency from the scheduled time.
+     */
+    private void execute(Operation operation, String customer, long scheduledNanos) {
+        try {
+            HttpResponse<String> response = send(operation, customer);
+            if (response == null) {
+                return;
+            }
+            latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos));
+            outcomes.computeIfAbsent(operation + " " + response.statusCode(), key -> new LongAdder()).increment();
+        } catch (IOException e) {
+            outcomes.computeIfAbsent(operation + " " + e.getClass().getSimpleName(), key -> new LongAdder()).increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends the request of the operation, or returns null when there is no open account to send it for.
+     */
+    private HttpResponse<String> send(Operation operation, String customer) throws IOException, InterruptedException {
+        if (operation == Operation.CREATE) {
+            String account = objectMapper.createObjectNode()
+                    .put("name", "load test")
+                    .put("customer", customer)
+                    .put("currency", "EUR")
+                    .toString();
+            HttpResponse<String> response = httpClient.send(request(API, writeToken)
+                    .POST(HttpRequest.BodyPublishers.ofString(account)).build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                long id = objectMapper.readTree(response.body()).get("id").asLong();
+                synchronized (openAccounts) {
+                    openAccounts.add(id);
+                }
+            }
+            return response;
+        }
+
+        Long accountId = pickAccount(operation == Operation.CLOSE);
+        if (accountId == null) {
+            return null;
+        }
+        switch (operation) {
+            case CLOSE:
+                return httpClient.send(request(API + "/" + accountId, writeToken)
+                        .PUT(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+            case HISTORY:
+                return httpClient.send(request(API + "/" + accountId + "/transactions?timeFrame=DAYS&interval=1", readToken)
+                        .GET().build(), HttpResponse.BodyHandlers.ofString());
+            case SEARCH:
+                return httpClient.send(request(API + "/" + accountId + "/transactions/search?q=ionescu&minAmount=1", readToken)
+                        .GET().build(), HttpResponse.BodyHandlers.ofString());
+            case POST:
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                String transaction = objectMapper.createObjectNode()
+                        .put("amount", random.nextInt(1, 100_000) / 100.0)
+                        .put("transactionType", random.nextBoolean() ? "CREDIT" : "DEBIT")
+                        .put("counterparty", "Ionescu Marius")
+                        .put("description", "load test " + random.nextInt(1_000))
+                        .toString();
+                return httpClient.send(request(API + "/" + accountId + "/transactions", writeToken)
+                        .POST(HttpRequest.BodyPublishers.ofString(transaction)).build(), HttpResponse.BodyHandlers.ofString());
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private Long pickAccount(boolean remove) {
+        synchronized (openAccounts) {
+            if (openAccounts.isEmpty()) {
+                return null;
+            }
+            int index = ThreadLocalRandom.current().nextInt(openAccounts.size());
+            if (!remove) {
+                return openAccounts.get(index);
+            }
+            // swap with the last one, the order of the open accounts does not matter
+            Long last = openAccounts.remove(openAccounts.size() - 1);
+            return index == openAccounts.size() ? last : openAccounts.set(index, last);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json");
+    }
+
+    private String obtainAccessToken(String clientId, String clientSecret) throws IOException, InterruptedException {
+        String credentials = Base64.getEncoder().encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/oauth/token"))
+                .header("Authorization", "Basic " + credentials)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials"))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not obtain a token for " + clientId + ": " + response.statusCode());
+        }
+        JsonNode token = objectMapper.readTree(response.body());
+        return token.get("access_token").asText();
+    }
+}
@@ -0,0 +1,75 @@
+package com.spring.bank.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies and response counts of one step of the throughput curve.
+ */
+final class LoadResult {
+
+    private final int clients;
+    private final double offeredRate;
+    private final long elapsedNanos;
+    private final Map<Operation, Histogram> latencies;
+    private final Map<String, Long> outcomes;
+
+    LoadResult(int clients, double offeredRate, long elapsedNanos, Map<Operation, Histogram> latencies, Map<String, Long> outcomes) {
+        this.clients = clients;
+        this.offeredRate = offeredRate;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+        this.outcomes = outcomes;
+    }
+
+    int getClients() {
+        return clients;
+    }
+
+    /**
+     * Requests per second the clients were scheduled to send; a throughput below it means the service saturated.
+     */
+    double getOfferedRate() {
+        return offeredRate;
+    }
+
+    long getRequests() {
+        return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    double getThroughput() {
+        return getRequests() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    Map<String, Long> getOutcomes() {
+        return outcomes;
+    }
+
+    Histogram getLatencies(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    /**
+     * Prints the throughput of the step and the latency percentiles, in milliseconds, of every operation sent.
+     */
+    void print(PrintStream out) {
+        out.printf("%d clients: %d requests, %.1f requests/sec of %.1f offered%n", clients, getRequests(), getThroughput(), offeredRate);
+        out.printf("  %-8s %9s %9s %9s %9s %9s %9s%n", "", "count", "p50", "p90", "p99", "p99.9", "max");
+        latencies.forEach((operation, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                out.printf("  %-8s %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation, histogram.getTotalCount(),
+                        millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                        millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                        millis(histogram.getMaxValue()));
+            }
+        });
+        out.println("  responses " + outcomes);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
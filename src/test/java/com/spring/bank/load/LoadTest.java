@@ -0,0 +1,81 @@
+package com.spring.bank.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Qualifies a build under a realistic traffic mix, run with
+ * {@code mvn test -Dtest=LoadTest -Dbank.load-test=true}. Every step of the curve runs the mix with more concurrent
+ * clients, each sending at a fixed rate, against the service started on a random port; the steps are tuned with
+ * <ul>
+ *     <li>{@code bank.load.clients}, the client counts of the steps (default 1,2,4,8,16,32)</li>
+ *     <li>{@code bank.load.rate}, requests per second sent by every client (default 50)</li>
+ *     <li>{@code bank.load.mix}, weights of create, close, history, post and search
+ *     (default create=10,close=2,history=30,post=43,search=15)</li>
+ *     <li>{@code bank.load.warmup} and {@code bank.load.duration}, per step in ISO-8601 (default PT5S and PT30S)</li>
+ *     <li>{@code bank.load.accounts}, accounts opened before the first step (default 1000)</li>
+ * </ul>
+ * Postings that hit the velocity rules or a closed account are answered with 422 and 409, which are counted as
+ * responses rather than failures.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "spring.jpa.show-sql=false")
+@EnabledIfSystemProperty(named = "bank.load-test", matches = "true")
+public class LoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${user.read.oauth.clientId}")
+    private String userReadClientId;
+
+    @Value("${user.read.oauth.clientSecret}")
+    private String userReadClientSecret;
+
+    @Value("${user.write.oauth.clientId}")
+    private String userWriteClientId;
+
+    @Value("${user.write.oauth.clientSecret}")
+    private String userWriteClientSecret;
+
+    @Test
+    public void report_throughput_curve_and_latency_percentiles() throws Exception {
+        OperationMix mix = OperationMix.parse(System.getProperty("bank.load.mix", "create=10,close=2,history=30,post=43,search=15"));
+        int ratePerClient = Integer.getInteger("bank.load.rate", 50);
+        Duration warmup = Duration.parse(System.getProperty("bank.load.warmup", "PT5S"));
+        Duration duration = Duration.parse(System.getProperty("bank.load.duration", "PT30S"));
+
+        LoadGenerator generator = new LoadGenerator("http://localhost:" + port, mix, objectMapper);
+        generator.authenticate(userReadClientId, userReadClientSecret, userWriteClientId, userWriteClientSecret);
+        generator.createAccounts(Integer.getInteger("bank.load.accounts", 1_000));
+
+        System.out.printf("Operation mix %s, %d requests/sec per client, %s warm-up and %s per step%n", mix, ratePerClient, warmup, duration);
+        List<LoadResult> curve = new ArrayList<>();
+        for (String clients : System.getProperty("bank.load.clients", "1,2,4,8,16,32").split(",")) {
+            LoadResult result = generator.run(Integer.parseInt(clients.trim()), ratePerClient, warmup, duration);
+            result.print(System.out);
+            curve.add(result);
+        }
+
+        System.out.println("Throughput curve (clients, offered and achieved requests/sec):");
+        curve.forEach(result -> System.out.printf("  %4d %10.1f %10.1f%n", result.getClients(), result.getOfferedRate(), result.getThroughput()));
+        assertThat(curve).allSatisfy(result -> {
+            assertThat(result.getRequests()).isPositive();
+            assertThat(result.getOutcomes().keySet())
+                    .noneMatch(outcome -> outcome.endsWith(" 500") || outcome.endsWith("Exception"));
+        });
+    }
+}
@@ -0,0 +1,12 @@
+package com.spring.bank.load;
+
+/**
+ * Requests issued by the load generator, each one as a real client would send it.
+ */
+enum Operation {
+    CREATE,
+    CLOSE,
+    HISTORY,
+    POST,
+    SEARCH
+}
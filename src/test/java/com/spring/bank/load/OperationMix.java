@@ -0,0 +1,64 @@
+package com.spring.bank.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Relative weights of the operations, parsed from a list like {@code create=10,close=2,history=30,post=43,search=15}.
+ */
+final class OperationMix {
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private OperationMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The operation mix needs at least one positive weight");
+        }
+    }
+
+    static OperationMix parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.trim().split("=");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Invalid operation weight: " + entry);
+            }
+            int value = Integer.parseInt(weight[1].trim());
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative operation weight: " + entry);
+            }
+            weights.put(Operation.valueOf(weight[0].trim().toUpperCase()), value);
+        }
+        return new OperationMix(weights);
+    }
+
+    Operation next(Random random) {
+        int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    int weightOf(Operation operation) {
+        return weights.getOrDefault(operation, 0);
+    }
+
+    @Override
+    public String toString() {
+        return weights.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.spring.bank.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OperationMixTest {
+
+    @Test
+    public void when_parsed_then_operations_drawn_by_weight() {
+        OperationMix mix = OperationMix.parse("create=10, post=30,history=60,close=0");
+        Map<Operation, Integer> drawn = new EnumMap<>(Operation.class);
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            drawn.merge(mix.next(random), 1, Integer::sum);
+        }
+
+        assertThat(mix.weightOf(Operation.SEARCH)).isZero();
+        assertThat(drawn).doesNotContainKeys(Operation.CLOSE, Operation.SEARCH);
+        assertThat(drawn.get(Operation.CREATE)).isBetween(9_000, 11_000);
+        assertThat(drawn.get(Operation.POST)).isBetween(29_000, 31_000);
+        assertThat(drawn.get(Operation.HISTORY)).isBetween(59_000, 61_000);
+    }
+
+    @Test
+    public void when_no_positive_weight_then_rejected() {
+        assertThatThrownBy(() -> OperationMix.parse("create=0")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OperationMix.parse("create")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,39 @@
+package com.spring.bank.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FrequencyTest {
+
+    @Test
+    public void when_monthly_from_end_of_month_then_clamped_without_drifting() {
+        LocalDateTime first = LocalDateTime.of(2024, 1, 31, 9, 0);
+
+        LocalDateTime february = Frequency.MONTHLY.next(first, first);
+        LocalDateTime march = Frequency.MONTHLY.next(first, february);
+        LocalDateTime april = Frequency.MONTHLY.next(first, march);
+
+        assertThat(february).isEqualTo(LocalDateTime.of(2024, 2, 29, 9, 0));
+        assertThat(march).isEqualTo(LocalDateTime.of(2024, 3, 31, 9, 0));
+        assertThat(april).isEqualTo(LocalDateTime.of(2024, 4, 30, 9, 0));
+    }
+
+    @Test
+    public void when_occurrences_missed_then_next_is_first_after_given_time() {
+        LocalDateTime first = LocalDateTime.of(2021, 3, 1, 9, 0);
+
+        assertThat(Frequency.DAILY.next(first, LocalDateTime.of(2021, 3, 5, 12, 0))).isEqualTo(LocalDateTime.of(2021, 3, 6, 9, 0));
+        assertThat(Frequency.WEEKLY.next(first, LocalDateTime.of(2021, 3, 15, 9, 0))).isEqualTo(LocalDateTime.of(2021, 3, 22, 9, 0));
+        assertThat(Frequency.MONTHLY.next(first, LocalDateTime.of(2021, 2, 1, 0, 0))).isEqualTo(first);
+    }
+
+    @Test
+    public void when_once_then_no_next_occurrence() {
+        LocalDateTime first = LocalDateTime.of(2021, 3, 1, 9, 0);
+
+        assertThat(Frequency.ONCE.next(first, first)).isNull();
+    }
+}
@@ -2,6 +2,7 @@ package com.spring.bank.model;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,4 +22,18 @@ public class TimeFrameTest {
         assertThat(now).isAfter(TimeFrame.HOURS.apply(1));
         assertThat(now.minusMinutes(61)).isBefore(TimeFrame.HOURS.apply(1));
     }
+
+    @Test
+    public void when_apply_interval_on_minutes_should_subtract_minutes() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(now.minusMinutes(4)).isAfter(TimeFrame.MINUTES.apply(5));
+        assertThat(now.minusMinutes(6)).isBefore(TimeFrame.MINUTES.apply(5));
+    }
+
+    @Test
+    public void when_converting_interval_to_duration_then_length_of_interval() {
+        assertThat(TimeFrame.MINUTES.toDuration(1)).isEqualTo(Duration.ofMinutes(1));
+        assertThat(TimeFrame.HOURS.toDuration(2)).isEqualTo(Duration.ofHours(2));
+        assertThat(TimeFrame.DAYS.toDuration(1)).isEqualTo(Duration.ofDays(1));
+    }
 }
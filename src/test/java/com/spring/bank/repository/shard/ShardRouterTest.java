@@ -0,0 +1,68 @@
+package com.spring.bank.repository.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShardRouterTest {
+
+    @Test
+    public void when_single_shard_then_every_account_on_shard_zero() {
+        ShardRouter shardRouter = new ShardRouter(1, 16);
+        assertThat(shardRouter.shardFor(42)).isEqualTo(0);
+        assertThat(shardRouter.shardFor(ShardAwareIdGenerator.nextId())).isEqualTo(0);
+    }
+
+    @Test
+    public void when_routing_ids_then_accounts_spread_evenly() {
+        ShardRouter shardRouter = new ShardRouter(4, 128);
+        int[] accounts = new int[4];
+        for (int i = 0; i < 100_000; i++) {
+            accounts[shardRouter.shardFor(ShardAwareIdGenerator.nextId())]++;
+        }
+        for (int count : accounts) {
+            assertThat(count).isBetween(17_500, 32_500);
+        }
+    }
+
+    @Test
+    public void when_routing_same_id_twice_then_same_shard() {
+        ShardRouter first = new ShardRouter(4, 128);
+        ShardRouter second = new ShardRouter(4, 128);
+        for (long id = 1; id < 1_000; id++) {
+            assertThat(first.shardFor(id)).isEqualTo(second.shardFor(id));
+        }
+    }
+
+    @Test
+    public void when_adding_a_shard_then_only_accounts_of_the_new_shard_move() {
+        ShardRouter fourShards = new ShardRouter(4, 128);
+        ShardRouter fiveShards = new ShardRouter(5, 128);
+        int moved = 0;
+        for (long id = 1; id <= 100_000; id++) {
+            int before = fourShards.shardFor(id);
+            int after = fiveShards.shardFor(id);
+            if (before != after) {
+                assertThat(after).isEqualTo(4);
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(15_000, 25_000);
+    }
+
+    @Test
+    public void when_generating_ids_then_unique_and_increasing() {
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 50_000; i++) {
+            long id = ShardAwareIdGenerator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            ids.add(id);
+            previous = id;
+        }
+        assertThat(ids).hasSize(50_000);
+    }
+}
@@ -0,0 +1,36 @@
+package com.spring.bank.repository.storage;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Started in its own JVM by {@link DurableStorageTest}: posts to an H2 file database, after the postings already in
+ * it, until it is killed, printing the id of every posting once its commit returned.
+ */
+public class CrashingWriter {
+
+    public static void main(String[] args) throws Exception {
+        try (Connection connection = DriverManager.getConnection(args[0], "sa", "")) {
+            connection.createStatement().execute("create table if not exists posting (id bigint primary key, amount bigint)");
+            connection.createStatement().execute("create table if not exists total (id int primary key, amount bigint)");
+            connection.createStatement().execute("merge into total (id, amount) key (id) values (1, 0)");
+            ResultSet last = connection.createStatement().executeQuery("select coalesce(max(id), 0) from posting");
+            last.next();
+            long firstId = last.getLong(1) + 1;
+            connection.setAutoCommit(false);
+            PreparedStatement insert = connection.prepareStatement("insert into posting (id, amount) values (?, ?)");
+            PreparedStatement update = connection.prepareStatement("update total set amount = amount + ? where id = 1");
+            for (long id = firstId; ; id++) {
+                insert.setLong(1, id);
+                insert.setLong(2, id);
+                insert.executeUpdate();
+                update.setLong(1, id);
+                update.executeUpdate();
+                connection.commit();
+                System.out.println(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.spring.bank.repository.storage;
+
+import com.spring.bank.model.Account;
+import com.spring.bank.model.Currency;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.service.AccountService;
+import com.spring.bank.service.TransactionService;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the application twice on the same database files: the context is closed after every test, which closes the
+ * database, and the next test starts a new one that has to find what the previous one wrote.
+ */
+@SpringBootTest
+@ActiveProfiles("durable")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class DurableProfileTest {
+
+    @TempDir
+    static Path directory;
+
+    private static Long accountId;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @DynamicPropertySource
+    static void storageProperties(DynamicPropertyRegistry registry) {
+        registry.add("bank.storage.directory", () -> directory.resolve("data").toString());
+        registry.add("bank.storage.backup-dir", () -> directory.resolve("backups").toString());
+    }
+
+    @Test
+    @Order(1)
+    public void when_written_through_the_services_then_committed() {
+        Account account = accountService.save(createAccount());
+        transactionService.post(account.getId(), new Transaction(BigDecimal.TEN, TransactionType.CREDIT, "Ionescu Marius", "bank transfer", null));
+        accountId = account.getId();
+
+        assertThat(accountService.findById(accountId).get().getBalance()).isEqualByComparingTo("110.00");
+    }
+
+    @Test
+    @Order(2)
+    public void when_restarted_then_account_and_transactions_still_there() {
+        assertThat(accountId).isNotNull();
+
+        Account account = accountService.findById(accountId).get();
+        List<Transaction> transactions = transactionService.getTransactionsByCriteria(accountId, LocalDateTime.now().minusDays(1));
+
+        assertThat(account.getIban()).isNotBlank();
+        assertThat(account.getBalance()).isEqualByComparingTo("110.00");
+        assertThat(transactions).hasSize(1);
+        assertThat(transactions.get(0).getAmount()).isEqualByComparingTo("10.00");
+        assertThat(transactions.get(0).getTransactionType()).isEqualTo(TransactionType.CREDIT);
+    }
+
+    private static Account createAccount() {
+        Account account = new Account();
+        account.setName("account name test");
+        account.setCurrency(Currency.EUR);
+        account.setCustomer("Cosmin");
+        account.setIban(UUID.randomUUID().toString());
+        account.setBalance(new BigDecimal("100.00"));
+        return account;
+    }
+}
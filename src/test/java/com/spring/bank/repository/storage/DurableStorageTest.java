@@ -0,0 +1,200 @@
+package com.spring.bank.repository.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kills a JVM that is posting to an H2 file database and checks what survives when the database is opened again.
+ */
+public class DurableStorageTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void when_killed_without_write_delay_then_every_acknowledged_posting_recovered() throws Exception {
+        String url = url(directory.resolve("bankdb"), 0, 16_384);
+
+        long acknowledged = killWhilePosting(url, 2_000);
+
+        Recovery recovery = recover(url);
+        assertThat(recovery.consistent).isTrue();
+        assertThat(recovery.postings).isGreaterThanOrEqualTo(acknowledged);
+    }
+
+    @Test
+    public void when_killed_with_write_delay_then_recovered_consistent() throws Exception {
+        String url = url(directory.resolve("bankdb"), 500, 16_384);
+
+        killWhilePosting(url, 2_000);
+
+        // postings acknowledged within the last write delay may be lost, but never half of one
+        Recovery recovery = recover(url);
+        assertThat(recovery.consistent).isTrue();
+    }
+
+    @Test
+    public void when_killed_twice_then_posting_resumes_after_recovery() throws Exception {
+        String url = url(directory.resolve("bankdb"), 0, 16_384);
+
+        killWhilePosting(url, 500);
+        long acknowledged = killWhilePosting(url, 500);
+
+        Recovery recovery = recover(url);
+        assertThat(recovery.consistent).isTrue();
+        assertThat(recovery.postings).isGreaterThanOrEqualTo(acknowledged);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "bank.benchmark", matches = "true")
+    public void report_posting_throughput_and_recovery_time_per_durability_setting() throws Exception {
+        int[] writeDelays = {0, 10, 100, 500};
+        int[] cacheSizes = {16_384, 131_072};
+        System.out.printf("%12s %12s %16s %14s %12s%n", "write delay", "cache (KB)", "postings/sec", "recovery (ms)", "lost");
+        for (int writeDelay : writeDelays) {
+            for (int cacheSize : cacheSizes) {
+                Path database = directory.resolve("bankdb-" + writeDelay + "-" + cacheSize);
+                long throughput = measurePostingThroughput(url(database, writeDelay, cacheSize), 8, 10_000, 20_000);
+
+                String crashUrl = url(directory.resolve("crash-" + writeDelay + "-" + cacheSize), writeDelay, cacheSize);
+                long acknowledged = killWhilePosting(crashUrl, 20_000);
+                Recovery recovery = recover(crashUrl);
+                System.out.printf("%12d %12d %16d %14d %12d%n", writeDelay, cacheSize, throughput, recovery.openMillis,
+                        Math.max(0, acknowledged - recovery.postings));
+            }
+        }
+    }
+
+    private static String url(Path database, int writeDelay, int cacheSize) {
+        return "jdbc:h2:file:" + database.toAbsolutePath() + ";WRITE_DELAY=" + writeDelay + ";CACHE_SIZE=" + cacheSize;
+    }
+
+    /**
+     * Starts a {@link CrashingWriter}, kills it once it acknowledged the given number of postings and returns the
+     * id of the last posting acknowledged before the kill.
+     */
+    private static long killWhilePosting(String url, long postings) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), CrashingWriter.class.getName(), url)
+                .redirectErrorStream(true)
+                .start();
+        long acknowledged = 0;
+        long count = 0;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(writer.getInputStream()))) {
+            String line;
+            while (count < postings && (line = output.readLine()) != null) {
+                try {
+                    acknowledged = Long.parseLong(line.trim());
+                    count++;
+                } catch (NumberFormatException e) {
+                    writer.destroyForcibly();
+                    throw new IllegalStateException("Writer failed: " + line);
+                }
+            }
+            writer.destroyForcibly();
+            // postings acknowledged after the last one read are not counted, the kill may have raced them
+        }
+        assertThat(writer.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(count).isEqualTo(postings);
+        return acknowledged;
+    }
+
+    private static Recovery recover(String url) throws Exception {
+        long start = System.nanoTime();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            long openMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            try (Statement statement = connection.createStatement();
+                 ResultSet postings = statement.executeQuery("select count(*), coalesce(max(id), 0), coalesce(sum(amount), 0) from posting")) {
+                postings.next();
+                long count = postings.getLong(1);
+                long maxId = postings.getLong(2);
+                long sum = postings.getLong(3);
+                // every posting also adds its amount to the total, a torn commit would leave them apart
+                boolean consistent = count == maxId && sum == total(statement);
+                return new Recovery(count, consistent, openMillis);
+            }
+        }
+    }
+
+    private static long total(Statement statement) throws Exception {
+        try (ResultSet total = statement.executeQuery("select amount from total where id = 1")) {
+            return total.next() ? total.getLong(1) : 0;
+        }
+    }
+
+    private static long measurePostingThroughput(String url, int threads, int accounts, int postingsPerThread) throws Exception {
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table account (id bigint primary key, balance bigint)");
+            statement.execute("create table posting (id bigint auto_increment primary key, account_id bigint, amount bigint)");
+            statement.execute("insert into account select x, 0 from system_range(1, " + accounts + ")");
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                results.add(executor.submit(() -> {
+                    try (Connection poster = DriverManager.getConnection(url, "sa", "");
+                         PreparedStatement lock = poster.prepareStatement("select balance from account where id = ? for update");
+                         PreparedStatement insert = poster.prepareStatement("insert into posting (account_id, amount) values (?, ?)");
+                         PreparedStatement update = poster.prepareStatement("update account set balance = balance + ? where id = ?")) {
+                        poster.setAutoCommit(false);
+                        for (int i = 0; i < postingsPerThread; i++) {
+                            long accountId = ThreadLocalRandom.current().nextLong(1, accounts + 1);
+                            lock.setLong(1, accountId);
+                            lock.executeQuery().close();
+                            insert.setLong(1, accountId);
+                            insert.setLong(2, 10);
+                            insert.executeUpdate();
+                            update.setLong(1, 10);
+                            update.setLong(2, accountId);
+                            update.executeUpdate();
+                            poster.commit();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            executor.shutdown();
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return (long) threads * postingsPerThread * 1000 / elapsedMillis;
+        }
+    }
+
+    private static class Recovery {
+
+        private final long postings;
+        private final boolean consistent;
+        private final long openMillis;
+
+        private Recovery(long postings, boolean consistent, long openMillis) {
+            this.postings = postings;
+            this.consistent = consistent;
+            this.openMillis = openMillis;
+        }
+    }
+}
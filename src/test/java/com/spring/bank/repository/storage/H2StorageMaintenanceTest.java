@@ -0,0 +1,100 @@
+package com.spring.bank.repository.storage;
+
+import com.spring.bank.repository.shard.ShardRouter;
+import org.h2.tools.Restore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class H2StorageMaintenanceTest {
+
+    @TempDir
+    Path directory;
+
+    private String url;
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private H2StorageMaintenance maintenance;
+
+    @BeforeEach
+    public void setup() {
+        url = "jdbc:h2:file:" + directory.resolve("bankdb").toAbsolutePath() + ";WRITE_DELAY=0";
+        dataSource = new SingleConnectionDataSource(url, "sa", "", true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table account (id bigint primary key, balance decimal(19, 2))");
+        maintenance = new H2StorageMaintenance(jdbcTemplate, new ShardRouter(1, 16), directory.resolve("backups"), 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Test
+    public void when_backed_up_while_writing_then_restore_has_committed_rows_only() throws Exception {
+        for (int id = 1; id <= 100; id++) {
+            jdbcTemplate.update("insert into account (id, balance) values (?, 0)", id);
+        }
+        Path backup;
+        try (Connection writer = DriverManager.getConnection(url, "sa", "")) {
+            writer.setAutoCommit(false);
+            try (Statement statement = writer.createStatement()) {
+                statement.executeUpdate("insert into account (id, balance) values (101, 0)");
+            }
+            backup = maintenance.backup().get(0);
+            writer.rollback();
+        }
+
+        Path restored = directory.resolve("restored");
+        Restore.execute(backup.toString(), restored.toString(), "bankdb");
+        SingleConnectionDataSource restoredDataSource = new SingleConnectionDataSource(
+                "jdbc:h2:file:" + restored.resolve("bankdb").toAbsolutePath(), "sa", "", true);
+        try {
+            assertThat(new JdbcTemplate(restoredDataSource).queryForObject("select count(*) from account", Long.class)).isEqualTo(100);
+        } finally {
+            restoredDataSource.destroy();
+        }
+    }
+
+    @Test
+    public void when_backed_up_then_only_newest_backups_kept() throws Exception {
+        Path backups = Files.createDirectories(directory.resolve("backups"));
+        Files.createFile(backups.resolve("bankdb-shard-0-20200101-000000.zip"));
+        Files.createFile(backups.resolve("bankdb-shard-0-20200102-000000.zip"));
+
+        Path backup = maintenance.backup().get(0);
+
+        try (Stream<Path> files = Files.list(backups)) {
+            List<String> names = files.map(file -> file.getFileName().toString()).sorted().collect(Collectors.toList());
+            assertThat(names).containsExactly("bankdb-shard-0-20200102-000000.zip", backup.getFileName().toString());
+        }
+    }
+
+    @Test
+    public void when_checkpointed_online_then_data_unchanged() {
+        for (int id = 1; id <= 1_000; id++) {
+            jdbcTemplate.update("insert into account (id, balance) values (?, 0)", id);
+        }
+        for (int round = 0; round < 20; round++) {
+            jdbcTemplate.update("update account set balance = balance + 1");
+        }
+
+        maintenance.checkpoint();
+
+        assertThat(jdbcTemplate.queryForObject("select sum(balance) from account", Long.class)).isEqualTo(20_000);
+    }
+}
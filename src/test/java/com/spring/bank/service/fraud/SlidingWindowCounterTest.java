@@ -0,0 +1,62 @@
+package com.spring.bank.service.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlidingWindowCounterTest {
+
+    @Test
+    public void when_events_within_window_then_counted_and_summed() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 60);
+        counter.add(1_000, 100);
+        counter.add(30_000, 250);
+        counter.add(59_000, 50);
+
+        assertThat(counter.count(59_500)).isEqualTo(3);
+        assertThat(counter.sum(59_500)).isEqualTo(400);
+    }
+
+    @Test
+    public void when_events_leave_window_then_no_longer_counted() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 60);
+        counter.add(1_000, 100);
+        counter.add(30_000, 250);
+
+        assertThat(counter.count(75_000)).isEqualTo(1);
+        assertThat(counter.sum(75_000)).isEqualTo(250);
+        assertThat(counter.count(95_000)).isEqualTo(0);
+    }
+
+    @Test
+    public void when_bucket_is_reused_then_old_events_are_dropped() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 60);
+        counter.add(1_000, 100);
+        counter.add(61_000, 10);
+
+        assertThat(counter.count(61_000)).isEqualTo(1);
+        assertThat(counter.sum(61_000)).isEqualTo(10);
+    }
+
+    @Test
+    public void when_event_removed_then_no_longer_counted() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 60);
+        counter.add(1_000, 100);
+        long epoch = counter.add(2_000, 250);
+        counter.remove(epoch, 250);
+
+        assertThat(counter.count(30_000)).isEqualTo(1);
+        assertThat(counter.sum(30_000)).isEqualTo(100);
+    }
+
+    @Test
+    public void when_no_event_for_a_window_then_idle() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMinutes(1), 60);
+        counter.add(1_000, 100);
+
+        assertThat(counter.isIdle(30_000)).isFalse();
+        assertThat(counter.isIdle(62_000)).isTrue();
+    }
+}
@@ -0,0 +1,64 @@
+package com.spring.bank.service.fraud;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VelocityRuleTest {
+
+    private static final int ROUNDS = 100_000;
+
+    @Test
+    public void when_limit_reached_then_reservation_violated_and_release_frees_it() {
+        VelocityRule rule = new VelocityRule("burst", RuleScope.ACCOUNT, RuleAction.REJECT, Duration.ofMinutes(1), 60, 2L, null);
+        rule.reserve(1L, 100, 1_000);
+        rule.reserve(1L, 100, 2_000);
+
+        VelocityRule.Reservation third = rule.reserve(1L, 100, 3_000);
+        assertThat(third.isViolated()).isTrue();
+
+        third.release();
+        assertThat(rule.reserve(2L, 100, 3_000).isViolated()).isFalse();
+        assertThat(rule.reserve(1L, 100, 4_000).isViolated()).isTrue();
+    }
+
+    @Test
+    public void when_idle_counter_evicted_while_reserving_then_reservation_not_lost() throws Exception {
+        long later = Duration.ofMinutes(5).toMillis();
+        int lost = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                VelocityRule rule = new VelocityRule("burst", RuleScope.ACCOUNT, RuleAction.REJECT, Duration.ofMinutes(1), 60, 1L, null);
+                // idle by then, so the eviction races the reservation for the counter
+                rule.reserve(1L, 100, 0);
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<?> reserved = executor.submit(() -> {
+                    start.await();
+                    return rule.reserve(1L, 100, later);
+                });
+                Future<?> evicted = executor.submit(() -> {
+                    start.await();
+                    rule.evictIdle(later);
+                    return null;
+                });
+                reserved.get();
+                evicted.get();
+                // the reservation above is within the limit, the next one exceeds it unless the first was lost
+                if (!rule.reserve(1L, 100, later).isViolated()) {
+                    lost++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(lost).isZero();
+    }
+}
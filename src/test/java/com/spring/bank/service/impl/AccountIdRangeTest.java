@@ -0,0 +1,36 @@
+package com.spring.bank.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccountIdRangeTest {
+
+    @Test
+    public void when_split_then_ranges_are_contiguous_and_cover_all_ids() {
+        List<AccountIdRange> ranges = AccountIdRange.split(1, 10, 3);
+        assertThat(ranges).hasSize(3);
+        assertThat(ranges.get(0).getFromId()).isEqualTo(1);
+        assertThat(ranges.get(0).getToId()).isEqualTo(4);
+        assertThat(ranges.get(1).getFromId()).isEqualTo(5);
+        assertThat(ranges.get(1).getToId()).isEqualTo(7);
+        assertThat(ranges.get(2).getFromId()).isEqualTo(8);
+        assertThat(ranges.get(2).getToId()).isEqualTo(10);
+    }
+
+    @Test
+    public void when_more_partitions_than_ids_then_one_range_per_id() {
+        List<AccountIdRange> ranges = AccountIdRange.split(5, 6, 8);
+        assertThat(ranges).hasSize(2);
+        assertThat(ranges.get(1).getFromId()).isEqualTo(6);
+        assertThat(ranges.get(1).getToId()).isEqualTo(6);
+    }
+
+    @Test
+    public void when_no_ids_then_no_ranges() {
+        assertThat(AccountIdRange.split(10, 9, 4)).isEmpty();
+        assertThat(new AccountIdRange(10, 9).isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,160 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.config.FraudProperties;
+import com.spring.bank.exception.TransactionRejectedException;
+import com.spring.bank.model.Account;
+import com.spring.bank.model.Currency;
+import com.spring.bank.model.TimeFrame;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.service.fraud.RuleAction;
+import com.spring.bank.service.fraud.RuleScope;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FraudCheckServiceImplTest {
+
+    @Test
+    public void when_count_limit_exceeded_then_rejected() {
+        FraudCheckServiceImpl fraudCheckService = new FraudCheckServiceImpl(properties(
+                rule(RuleScope.ACCOUNT, 2L, null, RuleAction.REJECT)));
+
+        assertThat(fraudCheckService.screen(1, transaction("10", "Ionescu Marius"))).isFalse();
+        assertThat(fraudCheckService.screen(1, transaction("10", "Ionescu Marius"))).isFalse();
+        assertThatThrownBy(() -> fraudCheckService.screen(1, transaction("10", "Ionescu Marius")))
+                .isInstanceOf(TransactionRejectedException.class);
+        assertThat(fraudCheckService.screen(2, transaction("10", "Ionescu Marius"))).isFalse();
+    }
+
+    @Test
+    public void when_amount_limit_exceeded_then_flagged() {
+        FraudCheckServiceImpl fraudCheckService = new FraudCheckServiceImpl(properties(
+                rule(RuleScope.ACCOUNT, null, new BigDecimal("100.00"), RuleAction.FLAG)));
+
+        assertThat(fraudCheckService.screen(1, transaction("60.50", "Ionescu Marius"))).isFalse();
+        assertThat(fraudCheckService.screen(1, transaction("39.50", "Ionescu Marius"))).isFalse();
+        assertThat(fraudCheckService.screen(1, transaction("0.01", "Ionescu Marius"))).isTrue();
+    }
+
+    @Test
+    public void when_counterparty_rule_then_counted_across_accounts() {
+        FraudCheckServiceImpl fraudCheckService = new FraudCheckServiceImpl(properties(
+                rule(RuleScope.COUNTERPARTY, 1L, null, RuleAction.FLAG)));
+
+        assertThat(fraudCheckService.screen(1, transaction("10", "Ionescu Marius"))).isFalse();
+        assertThat(fraudCheckService.screen(2, transaction("10", " ionescu marius"))).isTrue();
+        assertThat(fraudCheckService.screen(3, transaction("10", "Popescu Ion"))).isFalse();
+    }
+
+    @Test
+    public void when_counterparty_amount_rule_then_summed_per_currency() {
+        FraudCheckServiceImpl fraudCheckService = new FraudCheckServiceImpl(properties(
+                rule(RuleScope.COUNTERPARTY, null, new BigDecimal("100.00"), RuleAction.FLAG)));
+
+        assertThat(fraudCheckService.screen(1, transaction("80", "Ionescu Marius", Currency.EUR))).isFalse();
+        assertThat(fraudCheckService.screen(2, transaction("80", "Ionescu Marius", Currency.RON))).isFalse();
+        assertThat(fraudCheckService.screen(3, transaction("30", "Ionescu Marius", Currency.EUR))).isTrue();
+    }
+
+    @Test
+    public void when_rejected_then_not_counted() {
+        FraudCheckServiceImpl fraudCheckService = new FraudCheckServiceImpl(properties(
+                rule(RuleScope.ACCOUNT, null, new BigDecimal("100.00"), RuleAction.REJECT)));
+
+        assertThat(fraudCheckService.screen(1, transaction("80", "Ionescu Marius"))).isFalse();
+        assertThatThrownBy(() -> fraudCheckService.screen(1, transaction("30", "Ionescu Marius")))
+                .isInstanceOf(TransactionRejectedException.class);
+        assertThat(fraudCheckService.screen(1, transaction("20", "Ionescu Marius"))).isFalse();
+    }
+
+    @Test
+    public void when_transaction_rolled_back_then_not_counted() {
+        FraudCheckServiceImpl fraudCheckService = new FraudCheckServiceImpl(properties(
+                rule(RuleScope.ACCOUNT, 1L, null, RuleAction.REJECT)));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            fraudCheckService.screen(1, transaction("10", "Ionescu Marius"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(fraudCheckService.screen(1, transaction("10", "Ionescu Marius"))).isFalse();
+    }
+
+    @Test
+    public void when_screened_concurrently_then_limit_holds() throws Exception {
+        FraudCheckServiceImpl fraudCheckService = new FraudCheckServiceImpl(properties(
+                rule(RuleScope.COUNTERPARTY, 10L, null, RuleAction.REJECT)));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                long accountId = i;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        fraudCheckService.screen(accountId, transaction("10", "Ionescu Marius"));
+                        accepted.incrementAndGet();
+                    } catch (TransactionRejectedException e) {
+                        // over the limit
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(accepted.get()).isEqualTo(10);
+    }
+
+    private static FraudProperties properties(FraudProperties.Rule... rules) {
+        FraudProperties properties = new FraudProperties();
+        properties.setRules(Arrays.asList(rules));
+        return properties;
+    }
+
+    private static FraudProperties.Rule rule(RuleScope scope, Long maxCount, BigDecimal maxAmount, RuleAction action) {
+        FraudProperties.Rule rule = new FraudProperties.Rule();
+        rule.setName("test-rule");
+        rule.setScope(scope);
+        rule.setTimeFrame(TimeFrame.MINUTES);
+        rule.setMaxCount(maxCount);
+        rule.setMaxAmount(maxAmount);
+        rule.setAction(action);
+        return rule;
+    }
+
+    private static Transaction transaction(String amount, String counterparty) {
+        return transaction(amount, counterparty, Currency.EUR);
+    }
+
+    private static Transaction transaction(String amount, String counterparty, Currency currency) {
+        Account account = new Account();
+        account.setCurrency(currency);
+        return new Transaction(new BigDecimal(amount), TransactionType.DEBIT, counterparty, "bank transfer", account);
+    }
+}
@@ -0,0 +1,101 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.model.Account;
+import com.spring.bank.model.AccountStatus;
+import com.spring.bank.model.Currency;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.service.AccountService;
+import com.spring.bank.service.InterestAccrualService;
+import com.spring.bank.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class InterestAccrualServiceImplTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    public void when_interest_accrued_twice_for_same_day_then_credited_once() {
+        Account account = accountService.save(createAccount(new BigDecimal("36500.00"), AccountStatus.ACTIVE));
+
+        assertThat(interestAccrualService.accrue(LocalDate.of(2025, 6, 1))).isPositive();
+        assertThat(interestAccrualService.accrue(LocalDate.of(2025, 6, 1))).isZero();
+
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(new BigDecimal("36501.00"));
+    }
+
+    @Test
+    public void when_account_closed_then_no_interest() {
+        Account account = accountService.save(createAccount(new BigDecimal("36500.00"), AccountStatus.CLOSED));
+
+        interestAccrualService.accrue(LocalDate.of(2025, 6, 2));
+
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(new BigDecimal("36500.00"));
+    }
+
+    @Test
+    public void when_interest_accrued_concurrently_for_same_day_then_credited_once() throws Exception {
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            accounts.add(accountService.save(createAccount(new BigDecimal("36500.00"), AccountStatus.ACTIVE)));
+        }
+        // as if two instances ran the scheduled accrual at the same time
+        Callable<Long> accrual = () -> interestAccrualService.accrue(LocalDate.of(2025, 6, 3));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (Future<Long> result : executor.invokeAll(Arrays.asList(accrual, accrual))) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Account account : accounts) {
+            assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(new BigDecimal("36501.00"));
+        }
+    }
+
+    @Test
+    public void when_transactions_posted_after_accrual_date_then_interest_on_balance_at_end_of_that_date() {
+        Account account = accountService.save(createAccount(new BigDecimal("36500.00"), AccountStatus.ACTIVE));
+        transactionService.post(account.getId(), new Transaction(new BigDecimal("36500.00"), TransactionType.CREDIT, "Ionescu Marius", "salary", null));
+
+        interestAccrualService.accrue(LocalDate.of(2025, 6, 4));
+
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(new BigDecimal("73001.00"));
+    }
+
+    private static Account createAccount(BigDecimal balance, AccountStatus accountStatus) {
+        Account account = new Account();
+        account.setName("account name test");
+        account.setCurrency(Currency.EUR);
+        account.setCustomer("Cosmin");
+        account.setIban(UUID.randomUUID().toString());
+        account.setBalance(balance);
+        account.setAccountStatus(accountStatus);
+        return account;
+    }
+}
@@ -0,0 +1,106 @@
+package com.spring.bank.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InterestCalculatorTest {
+
+    @Test
+    public void when_interest_computed_then_rounded_half_up_to_the_cent() {
+        // at 1% a year 36 500.00 earns 1.00 a day, 18 250.00 earns 0.50, 18 249.00 earns 0.49997 and 18 067.00 earns 0.49499
+        long[] balances = {3_650_000, 1_825_000, 1_824_900, 1_806_700};
+        int[] rates = {100, 100, 100, 100};
+        long[] interest = new long[balances.length];
+
+        InterestCalculator.dailyInterest(balances, rates, interest, balances.length, 365);
+
+        assertThat(interest).containsExactly(100, 50, 50, 49);
+    }
+
+    @Test
+    public void when_balance_not_positive_then_no_interest() {
+        long[] balances = {0, -3_650_000};
+        int[] rates = {250, 250};
+        long[] interest = {7, 7};
+
+        InterestCalculator.dailyInterest(balances, rates, interest, balances.length, 365);
+
+        assertThat(interest).containsExactly(0, 0);
+    }
+
+    @Test
+    public void when_leap_year_then_divided_by_366_days() {
+        long[] balances = {36_600_000};
+        int[] rates = {100};
+        long[] interest = new long[1];
+
+        InterestCalculator.dailyInterest(balances, rates, interest, 1, 366);
+
+        assertThat(interest).containsExactly(1_000);
+    }
+
+    @Test
+    public void when_count_smaller_than_arrays_then_rest_untouched() {
+        long[] balances = {3_650_000, 3_650_000};
+        int[] rates = {100, 100};
+        long[] interest = {0, -1};
+
+        InterestCalculator.dailyInterest(balances, rates, interest, 1, 365);
+
+        assertThat(interest).containsExactly(100, -1);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "bank.benchmark", matches = "true")
+    public void report_accrual_throughput_for_ten_million_accounts() throws Exception {
+        int accounts = 10_000_000;
+        int chunkSize = 5_000;
+        long[] balances = new long[accounts];
+        int[] rates = new int[accounts];
+        Random random = new Random(42);
+        for (int i = 0; i < accounts; i++) {
+            balances[i] = random.nextInt(100_000_000);
+            rates[i] = 100 + random.nextInt(3) * 50;
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int run = 0; run < 5; run++) {
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            int partitionSize = (accounts + threads - 1) / threads;
+            for (int from = 0; from < accounts; from += partitionSize) {
+                int partitionFrom = from;
+                int partitionTo = Math.min(accounts, from + partitionSize);
+                results.add(executor.submit(() -> {
+                    long[] chunkBalances = new long[chunkSize];
+                    int[] chunkRates = new int[chunkSize];
+                    long[] interest = new long[chunkSize];
+                    for (int i = partitionFrom; i < partitionTo; i += chunkSize) {
+                        int count = Math.min(chunkSize, partitionTo - i);
+                        System.arraycopy(balances, i, chunkBalances, 0, count);
+                        System.arraycopy(rates, i, chunkRates, 0, count);
+                        InterestCalculator.dailyInterest(chunkBalances, chunkRates, interest, count, 365);
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            System.out.printf("%d accounts on %d threads: %d ms (%d accounts/sec)%n",
+                    accounts, threads, elapsedMillis, accounts * 1000L / elapsedMillis);
+        }
+        executor.shutdown();
+    }
+}
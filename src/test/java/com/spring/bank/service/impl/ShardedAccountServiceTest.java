@@ -0,0 +1,106 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.model.Account;
+import com.spring.bank.model.Currency;
+import com.spring.bank.repository.shard.ShardContext;
+import com.spring.bank.repository.shard.ShardRouter;
+import com.spring.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("sharded")
+public class ShardedAccountServiceTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void when_saving_accounts_then_each_is_stored_on_its_shard_only() {
+        String customer = UUID.randomUUID().toString();
+        List<Account> accounts = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            accounts.add(accountService.save(createAccount(customer)));
+        }
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (Account account : accounts) {
+            int shard = shardRouter.shardFor(account.getId());
+            for (int other = 0; other < shardRouter.getShardCount(); other++) {
+                int stored = ShardContext.callOnShard(other, () -> jdbcTemplate.queryForObject(
+                        "select count(*) from account where id = ?", Integer.class, account.getId()));
+                assertThat(stored).isEqualTo(other == shard ? 1 : 0);
+            }
+            assertThat(accountService.findById(account.getId())).isPresent();
+        }
+    }
+
+    @Test
+    public void when_listing_accounts_of_customer_then_gathered_from_all_shards() {
+        String customer = UUID.randomUUID().toString();
+        for (int i = 0; i < 30; i++) {
+            accountService.save(createAccount(customer));
+        }
+
+        List<Account> accounts = accountService.findByCustomer(customer);
+
+        assertThat(accounts).hasSize(30);
+        assertThat(accounts.stream().map(account -> shardRouter.shardFor(account.getId())).distinct().count())
+                .isEqualTo(shardRouter.getShardCount());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "bank.benchmark", matches = "true")
+    public void report_write_throughput_per_writer_count() throws Exception {
+        for (int writers = 1; writers <= 2 * shardRouter.getShardCount(); writers++) {
+            ExecutorService executor = Executors.newFixedThreadPool(writers);
+            int accountsPerWriter = 2_000;
+            long start = System.nanoTime();
+            List<Future<?>> results = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < accountsPerWriter; i++) {
+                        accountService.save(createAccount("benchmark"));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            executor.shutdown();
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            System.out.printf("%d shards, %d writers: %d accounts/sec%n", shardRouter.getShardCount(), writers,
+                    writers * accountsPerWriter * 1000L / elapsedMillis);
+        }
+    }
+
+    private static Account createAccount(String customer) {
+        Account account = new Account();
+        account.setName("account name test");
+        account.setCurrency(Currency.EUR);
+        account.setCustomer(customer);
+        account.setIban(UUID.randomUUID().toString());
+        return account;
+    }
+}
@@ -0,0 +1,157 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.exception.AccountClosedException;
+import com.spring.bank.model.Account;
+import com.spring.bank.model.Currency;
+import com.spring.bank.model.Frequency;
+import com.spring.bank.model.StandingOrder;
+import com.spring.bank.model.StandingOrderStatus;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.service.AccountService;
+import com.spring.bank.service.StandingOrderService;
+import com.spring.bank.service.TransactionService;
+import com.spring.bank.service.scheduling.ScheduledOccurrence;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+public class StandingOrderServiceImplTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void when_occurrence_fired_twice_then_executed_once() {
+        Account account = accountService.save(createAccount());
+        LocalDateTime dueAt = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        StandingOrder standingOrder = standingOrderService.create(account.getId(), createStandingOrder(dueAt, Frequency.DAILY));
+        ScheduledOccurrence occurrence = new ScheduledOccurrence(standingOrder.getId(), account.getId(), dueAt);
+
+        assertThat(standingOrderService.execute(occurrence)).isTrue();
+        assertThat(standingOrderService.execute(occurrence)).isFalse();
+
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(new BigDecimal("-25"));
+        StandingOrder executed = standingOrderService.findByAccountId(account.getId()).get(0);
+        assertThat(executed.getNextExecution()).isEqualTo(dueAt.plusDays(1));
+        assertThat(executed.getLastExecution()).isEqualTo(dueAt);
+    }
+
+    @Test
+    public void when_one_off_order_executed_then_completed() {
+        Account account = accountService.save(createAccount());
+        LocalDateTime dueAt = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        StandingOrder standingOrder = standingOrderService.create(account.getId(), createStandingOrder(dueAt, Frequency.ONCE));
+
+        assertThat(standingOrderService.execute(new ScheduledOccurrence(standingOrder.getId(), account.getId(), dueAt))).isTrue();
+
+        assertThat(standingOrderService.findByAccountId(account.getId()).get(0).getStatus()).isEqualTo(StandingOrderStatus.COMPLETED);
+    }
+
+    @Test
+    public void when_order_cancelled_then_not_executed() {
+        Account account = accountService.save(createAccount());
+        LocalDateTime dueAt = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        StandingOrder standingOrder = standingOrderService.create(account.getId(), createStandingOrder(dueAt, Frequency.MONTHLY));
+        standingOrderService.cancel(account.getId(), standingOrder.getId());
+
+        assertThat(standingOrderService.execute(new ScheduledOccurrence(standingOrder.getId(), account.getId(), dueAt))).isFalse();
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    public void when_occurrences_missed_then_overdue_one_paid_once_and_order_resumes_after_now() {
+        Account account = accountService.save(createAccount());
+        LocalDateTime dueAt = LocalDateTime.now().minusDays(3).minusHours(1).truncatedTo(ChronoUnit.SECONDS);
+        StandingOrder standingOrder = standingOrderService.create(account.getId(), createStandingOrder(dueAt, Frequency.DAILY));
+
+        assertThat(standingOrderService.execute(new ScheduledOccurrence(standingOrder.getId(), account.getId(), dueAt))).isTrue();
+
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(new BigDecimal("-25"));
+        StandingOrder executed = standingOrderService.findByAccountId(account.getId()).get(0);
+        assertThat(executed.getLastExecution()).isEqualTo(dueAt);
+        assertThat(executed.getNextExecution()).isEqualTo(dueAt.plusDays(4));
+    }
+
+    @Test
+    public void when_posting_fails_then_failure_recorded_and_occurrence_retried_until_given_up() {
+        Account account = accountService.save(createAccount());
+        // the account-burst rule rejects the 21st transaction of the account within a minute
+        for (int i = 0; i < 20; i++) {
+            transactionService.post(account.getId(), new Transaction(BigDecimal.ONE, TransactionType.CREDIT, "Ionescu Marius", "top up", null));
+        }
+        LocalDateTime dueAt = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        StandingOrder standingOrder = standingOrderService.create(account.getId(), createStandingOrder(dueAt, Frequency.DAILY));
+        ScheduledOccurrence occurrence = new ScheduledOccurrence(standingOrder.getId(), account.getId(), dueAt);
+
+        assertThat(standingOrderService.execute(occurrence)).isFalse();
+        assertThat(standingOrderService.execute(occurrence)).isFalse();
+
+        StandingOrder failed = standingOrderService.findByAccountId(account.getId()).get(0);
+        assertThat(failed.getNextExecution()).isEqualTo(dueAt);
+        assertThat(failed.getFailedAttempts()).isEqualTo(2);
+        assertThat(failed.getLastFailedExecution()).isEqualTo(dueAt);
+        assertThat(failed.getLastFailure()).contains("account-burst");
+
+        // the third and last attempt gives the occurrence up
+        assertThat(standingOrderService.execute(occurrence)).isFalse();
+
+        StandingOrder skipped = standingOrderService.findByAccountId(account.getId()).get(0);
+        assertThat(skipped.getNextExecution()).isEqualTo(dueAt.plusDays(1));
+        assertThat(skipped.getFailedAttempts()).isZero();
+        assertThat(skipped.getLastFailedExecution()).isEqualTo(dueAt);
+        assertThat(skipped.getLastExecution()).isNull();
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(new BigDecimal("20"));
+    }
+
+    @Test
+    public void when_account_closed_by_other_instance_then_order_not_created() {
+        Account account = accountService.save(createAccount());
+        // not seen by the status index until its next refresh
+        jdbcTemplate.update("update account set account_status = 'CLOSED' where id = ?", account.getId());
+        LocalDateTime dueAt = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+
+        assertThatThrownBy(() -> standingOrderService.create(account.getId(), createStandingOrder(dueAt, Frequency.DAILY)))
+                .isInstanceOf(AccountClosedException.class);
+        assertThat(standingOrderService.findByAccountId(account.getId())).isEmpty();
+    }
+
+    private static Account createAccount() {
+        Account account = new Account();
+        account.setName("account name test");
+        account.setCurrency(Currency.EUR);
+        account.setCustomer("Cosmin");
+        account.setIban(UUID.randomUUID().toString());
+        return account;
+    }
+
+    private static StandingOrder createStandingOrder(LocalDateTime nextExecution, Frequency frequency) {
+        StandingOrder standingOrder = new StandingOrder();
+        standingOrder.setAmount(new BigDecimal("25"));
+        standingOrder.setTransactionType(TransactionType.DEBIT);
+        standingOrder.setCounterparty("Landlord");
+        standingOrder.setDescription("rent");
+        standingOrder.setFrequency(frequency);
+        standingOrder.setNextExecution(nextExecution);
+        return standingOrder;
+    }
+}
@@ -0,0 +1,138 @@
+package com.spring.bank.service.impl;
+
+import com.spring.bank.model.Account;
+import com.spring.bank.model.Currency;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.service.AccountService;
+import com.spring.bank.service.StatementService;
+import com.spring.bank.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"bank.statement.partitions=2", "bank.statement.checkpoint-interval=1"})
+public class StatementServiceImplTest {
+
+    @TempDir
+    static Path outputDirectory;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private StatementService statementService;
+
+    @DynamicPropertySource
+    static void statementProperties(DynamicPropertyRegistry registry) {
+        registry.add("bank.statement.output-dir", () -> outputDirectory.toString());
+    }
+
+    @Test
+    public void when_checkpoint_interval_below_one_then_rejected() {
+        assertThatThrownBy(() -> new StatementServiceImpl(null, null, null, null, "statements", 0, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("checkpoint-interval");
+    }
+
+    @Test
+    public void when_generated_then_statement_has_day_transactions_and_closing_balance_of_the_day() throws IOException {
+        Account account = accountService.save(createAccount(new BigDecimal("100.00")));
+        transactionService.post(account.getId(), new Transaction(BigDecimal.TEN, TransactionType.CREDIT, "Ionescu Marius", "bank transfer", null));
+        LocalDate today = LocalDate.now();
+
+        statementService.generateStatements(today.minusDays(1));
+        statementService.generateStatements(today);
+
+        // posted today, so neither a line nor part of the balance of yesterday's statement
+        List<String> yesterday = Files.readAllLines(statement(today.minusDays(1), account));
+        assertThat(yesterday).hasSize(2);
+        assertThat(closingBalance(yesterday)).isEqualByComparingTo("100.00");
+        List<String> current = Files.readAllLines(statement(today, account));
+        assertThat(current).hasSize(3);
+        assertThat(current.get(2)).contains(";CREDIT;10.00;Ionescu Marius;bank transfer");
+        assertThat(closingBalance(current)).isEqualByComparingTo("110.00");
+    }
+
+    @Test
+    public void when_generated_then_every_partition_checkpointed_at_the_end_of_its_range() throws IOException {
+        Account first = accountService.save(createAccount(BigDecimal.ZERO));
+        Account last = accountService.save(createAccount(BigDecimal.ZERO));
+        LocalDate statementDate = LocalDate.now().minusDays(2);
+
+        long written = statementService.generateStatements(statementDate);
+
+        String[] plan = Files.readString(outputDirectory.resolve(statementDate.toString()).resolve("partitions.plan")).trim().split(" ");
+        List<AccountIdRange> ranges = AccountIdRange.split(Long.parseLong(plan[0]), Long.parseLong(plan[1]), Integer.parseInt(plan[2]));
+        assertThat(ranges).hasSize(2);
+        for (int partition = 0; partition < ranges.size(); partition++) {
+            assertThat(Files.readString(checkpoint(statementDate, partition)).trim())
+                    .isEqualTo(String.valueOf(ranges.get(partition).getToId()));
+        }
+        assertThat(Long.parseLong(plan[1])).isEqualTo(last.getId());
+        assertThat(statement(statementDate, first)).exists();
+        assertThat(statement(statementDate, last)).exists();
+        assertThat(statementService.generateStatements(statementDate)).isZero();
+        assertThat(written).isPositive();
+    }
+
+    @Test
+    public void when_resumed_from_checkpoint_then_only_remaining_accounts_written() throws IOException {
+        Account first = accountService.save(createAccount(BigDecimal.ZERO));
+        Account second = accountService.save(createAccount(BigDecimal.ZERO));
+        Account last = accountService.save(createAccount(BigDecimal.ZERO));
+        LocalDate statementDate = LocalDate.now().minusDays(3);
+        statementService.generateStatements(statementDate);
+
+        // as if the run had stopped right after writing the second account of the last partition
+        Files.delete(statement(statementDate, first));
+        Files.delete(statement(statementDate, second));
+        Files.delete(statement(statementDate, last));
+        Files.writeString(checkpoint(statementDate, 1), String.valueOf(last.getId() - 1));
+
+        assertThat(statementService.generateStatements(statementDate)).isEqualTo(1);
+        assertThat(statement(statementDate, first)).doesNotExist();
+        assertThat(statement(statementDate, second)).doesNotExist();
+        assertThat(statement(statementDate, last)).exists();
+    }
+
+    private static Path statement(LocalDate statementDate, Account account) {
+        return outputDirectory.resolve(statementDate.toString()).resolve(account.getId() + ".csv");
+    }
+
+    private static Path checkpoint(LocalDate statementDate, int partition) {
+        return outputDirectory.resolve(statementDate.toString()).resolve("shard-0-partition-" + partition + ".checkpoint");
+    }
+
+    private static BigDecimal closingBalance(List<String> statement) {
+        String header = statement.get(0);
+        return new BigDecimal(header.substring(header.lastIndexOf(';') + 1));
+    }
+
+    private static Account createAccount(BigDecimal balance) {
+        Account account = new Account();
+        account.setName("account name test");
+        account.setCurrency(Currency.EUR);
+        account.setCustomer("Cosmin");
+        account.setIban(UUID.randomUUID().toString());
+        account.setBalance(balance);
+        return account;
+    }
+}
@@ -0,0 +1,77 @@
+package com.spring.bank.service.scheduling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HierarchicalTimerWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    public void when_deadline_reached_then_item_expires_not_before() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(10, 3, START);
+        wheel.schedule(START + 55, "rent");
+
+        assertThat(wheel.advance(START + 50)).isEmpty();
+        assertThat(wheel.advance(START + 60)).containsExactly("rent");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void when_deadline_on_higher_level_then_cascades_down_and_expires_on_time() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(10, 3, START);
+        wheel.schedule(START + 123_450, "salary");
+
+        assertThat(wheel.advance(START + 123_440)).isEmpty();
+        assertThat(wheel.advance(START + 123_450)).containsExactly("salary");
+    }
+
+    @Test
+    public void when_deadline_beyond_wheel_range_then_waits_in_overflow() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(10, 2, START);
+        wheel.schedule(START + 100_000, "yearly fee");
+
+        assertThat(wheel.advance(START + 99_990)).isEmpty();
+        assertThat(wheel.advance(START + 100_000)).containsExactly("yearly fee");
+    }
+
+    @Test
+    public void when_deadline_already_passed_then_expires_on_next_advance() {
+        HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(10, 3, START);
+        wheel.schedule(START - 5_000, "missed while down");
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advance(START)).containsExactly("missed while down");
+    }
+
+    @Test
+    public void when_many_random_deadlines_then_each_expires_in_the_tick_of_its_deadline() {
+        HierarchicalTimerWheel<Integer> wheel = new HierarchicalTimerWheel<>(10, 3, START);
+        Random random = new Random(42);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = START + 1 + random.nextInt(500_000);
+            deadlines.put(i, deadline);
+            wheel.schedule(deadline, i);
+        }
+
+        long now = START;
+        while (!deadlines.isEmpty()) {
+            long previous = now;
+            now += 1 + random.nextInt(40);
+            List<Integer> expired = wheel.advance(now);
+            for (Integer item : expired) {
+                long deadline = deadlines.remove(item);
+                assertThat(deadline).isLessThanOrEqualTo(now);
+                assertThat(deadline).isGreaterThan(previous - previous % 10);
+            }
+        }
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,44 @@
+package com.spring.bank.service.scheduling;
+
+import com.spring.bank.service.StandingOrderService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class StandingOrderSchedulerTest {
+
+    @Test
+    public void when_occurrence_throws_then_rest_of_batch_executed_and_released() {
+        StandingOrderService standingOrderService = mock(StandingOrderService.class);
+        LocalDateTime dueAt = LocalDateTime.now().minusMinutes(1);
+        List<ScheduledOccurrence> batch = Arrays.asList(
+                new ScheduledOccurrence(1L, 100L, dueAt),
+                new ScheduledOccurrence(2L, 100L, dueAt),
+                new ScheduledOccurrence(3L, 100L, dueAt));
+        when(standingOrderService.findOccurrencesDueBefore(any(LocalDateTime.class))).thenReturn(batch);
+        when(standingOrderService.execute(any(ScheduledOccurrence.class))).thenReturn(true);
+        when(standingOrderService.execute(batch.get(1))).thenThrow(new IllegalStateException("Shard unavailable"));
+
+        StandingOrderScheduler scheduler = new StandingOrderScheduler(standingOrderService, 1000, Duration.ofHours(1), 100, 1);
+        try {
+            scheduler.loadDueOccurrences();
+            assertThat(scheduler.scheduledCount()).isEqualTo(3);
+
+            scheduler.executeBatch(batch);
+
+            verify(standingOrderService).execute(batch.get(0));
+            verify(standingOrderService).execute(batch.get(1));
+            verify(standingOrderService).execute(batch.get(2));
+            assertThat(scheduler.scheduledCount()).isZero();
+        } finally {
+            scheduler.stop();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.spring.bank.service.search;
+
+import com.spring.bank.model.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AccountTransactionIndexTest {
+
+    @Test
+    public void when_searched_by_word_prefix_then_newest_matches_first() {
+        AccountTransactionIndex index = createIndex();
+
+        assertThat(index.search(Collections.singletonList("ionesc"), Long.MIN_VALUE, Long.MAX_VALUE, null, 10))
+                .containsExactly(3, 1);
+    }
+
+    @Test
+    public void when_searched_by_several_words_then_all_must_match() {
+        AccountTransactionIndex index = createIndex();
+
+        assertThat(index.search(Arrays.asList("ionescu", "rent"), Long.MIN_VALUE, Long.MAX_VALUE, null, 10))
+                .containsExactly(3);
+        assertThat(index.search(Arrays.asList("ionescu", "salary"), Long.MIN_VALUE, Long.MAX_VALUE, null, 10))
+                .isEmpty();
+    }
+
+    @Test
+    public void when_filtered_by_amount_and_type_then_only_matching_returned() {
+        AccountTransactionIndex index = createIndex();
+
+        assertThat(index.search(Collections.emptyList(), 1_000, 250_000, null, 10)).containsExactly(3, 2);
+        assertThat(index.search(Collections.emptyList(), Long.MIN_VALUE, Long.MAX_VALUE, TransactionType.CREDIT, 10))
+                .containsExactly(2);
+    }
+
+    @Test
+    public void when_more_matches_than_limit_then_newest_returned() {
+        AccountTransactionIndex index = createIndex();
+
+        assertThat(index.search(Collections.emptyList(), Long.MIN_VALUE, Long.MAX_VALUE, null, 2)).containsExactly(3, 2);
+    }
+
+    @Test
+    public void when_many_transactions_added_then_all_indexed() {
+        AccountTransactionIndex index = new AccountTransactionIndex(10_000);
+        for (int i = 1; i <= 1_000; i++) {
+            index.add(i, i, TransactionType.DEBIT, Arrays.asList("card", "shop" + (i % 10)));
+        }
+
+        assertThat(index.size()).isEqualTo(1_000);
+        assertThat(index.search(Collections.singletonList("shop7"), Long.MIN_VALUE, Long.MAX_VALUE, null, 1_000)).hasSize(100);
+        assertThat(index.search(Collections.singletonList("card"), 990, Long.MAX_VALUE, null, 1_000)).hasSize(11);
+    }
+
+    @Test
+    public void when_capacity_reached_then_oldest_evicted() {
+        AccountTransactionIndex index = new AccountTransactionIndex(100);
+        for (int i = 1; i <= 101; i++) {
+            index.add(i, i, TransactionType.DEBIT, Arrays.asList("card", "shop" + (i % 10)));
+        }
+
+        assertThat(index.size()).isEqualTo(76);
+        assertThat(index.search(Collections.singletonList("card"), Long.MIN_VALUE, Long.MAX_VALUE, null, 1_000))
+                .hasSize(76)
+                .startsWith(101, 100)
+                .endsWith(27, 26);
+        assertThat(index.search(Collections.singletonList("shop7"), Long.MIN_VALUE, Long.MAX_VALUE, null, 1_000))
+                .containsExactly(97, 87, 77, 67, 57, 47, 37, 27);
+    }
+
+    @Test
+    public void when_older_transaction_added_late_then_results_stay_newest_first() {
+        AccountTransactionIndex index = createIndex();
+        index.add(6, 100, TransactionType.DEBIT, Arrays.asList("card", "shop"));
+        // written by another instance before 6 and indexed after it
+        index.add(5, 200, TransactionType.DEBIT, Arrays.asList("ionescu", "card"));
+        index.add(4, 300, TransactionType.CREDIT, Arrays.asList("card", "refund"));
+
+        assertThat(index.search(Collections.emptyList(), Long.MIN_VALUE, Long.MAX_VALUE, null, 3)).containsExactly(6, 5, 4);
+        assertThat(index.search(Collections.singletonList("card"), Long.MIN_VALUE, Long.MAX_VALUE, null, 2)).containsExactly(6, 5);
+        assertThat(index.search(Collections.singletonList("ionescu"), Long.MIN_VALUE, Long.MAX_VALUE, null, 10)).containsExactly(5, 3, 1);
+        assertThat(index.search(Collections.singletonList("card"), 150, Long.MAX_VALUE, null, 10)).containsExactly(5, 4);
+    }
+
+    @Test
+    public void when_capacity_reached_then_transaction_older_than_all_kept_ignored() {
+        AccountTransactionIndex index = new AccountTransactionIndex(4);
+        for (int i = 11; i <= 14; i++) {
+            index.add(i, i, TransactionType.DEBIT, Collections.singletonList("card"));
+        }
+
+        index.add(10, 10, TransactionType.DEBIT, Collections.singletonList("card"));
+        index.add(15, 15, TransactionType.DEBIT, Collections.singletonList("card"));
+
+        assertThat(index.search(Collections.singletonList("card"), Long.MIN_VALUE, Long.MAX_VALUE, null, 10))
+                .containsExactly(15, 14, 13, 12);
+    }
+
+    private static AccountTransactionIndex createIndex() {
+        AccountTransactionIndex index = new AccountTransactionIndex(10_000);
+        index.add(1, 500, TransactionType.DEBIT, Arrays.asList("ionescu", "marius", "bank", "transfer"));
+        index.add(2, 250_000, TransactionType.CREDIT, Arrays.asList("employer", "salary"));
+        index.add(3, 45_000, TransactionType.DEBIT, Arrays.asList("ionescu", "marius", "rent", "june"));
+        return index;
+    }
+}
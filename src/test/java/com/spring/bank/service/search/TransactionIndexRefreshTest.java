@@ -0,0 +1,63 @@
+package com.spring.bank.service.search;
+
+import com.spring.bank.model.Account;
+import com.spring.bank.model.AccountStatus;
+import com.spring.bank.model.Currency;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.repository.shard.IdAllocator;
+import com.spring.bank.service.AccountService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class TransactionIndexRefreshTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionIndex transactionIndex;
+
+    @Autowired
+    private IdAllocator idAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void when_transaction_written_by_other_instance_then_indexed_once_by_refresh() {
+        Account account = accountService.save(createAccount());
+        long transactionId = idAllocator.nextId();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // written without going through this instance, like a posting served by another node
+        jdbcTemplate.update("insert into transaction (id, balance, transaction_type, counterparty, description, flagged, " +
+                        "created_date_time, recorded_date_time, account_id) values (?, ?, 'CREDIT', ?, ?, false, ?, ?, ?)",
+                transactionId, new BigDecimal("42.00"), "Popescu Ion", "invoice 1207", now, now, account.getId());
+
+        transactionIndex.refresh();
+        transactionIndex.refresh();
+
+        assertThat(transactionIndex.search(account.getId(), "invoice", null, null, TransactionType.CREDIT))
+                .containsExactly(transactionId);
+    }
+
+    private static Account createAccount() {
+        Account account = new Account();
+        account.setName("account name test");
+        account.setCurrency(Currency.EUR);
+        account.setCustomer("Cosmin");
+        account.setIban(UUID.randomUUID().toString());
+        account.setBalance(BigDecimal.ZERO);
+        account.setAccountStatus(AccountStatus.ACTIVE);
+        return account;
+    }
+}
@@ -0,0 +1,33 @@
+package com.spring.bank.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TransactionIndexTest {
+
+    @Test
+    public void when_tokenized_then_lower_case_words_without_diacritics() {
+        assertThat(TransactionIndex.tokenize("Plată chirie - Ștefan Țurcanu, IUNIE/2025"))
+                .containsExactly("plata", "chirie", "stefan", "turcanu", "iunie", "2025");
+    }
+
+    @Test
+    public void when_word_repeated_then_tokenized_once() {
+        assertThat(TransactionIndex.tokenize("bank transfer, bank")).containsExactly("bank", "transfer");
+    }
+
+    @Test
+    public void when_max_transactions_per_account_below_one_then_rejected() {
+        assertThatThrownBy(() -> new TransactionIndex(null, null, null, 100, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("max-transactions-per-account");
+    }
+
+    @Test
+    public void when_blank_then_no_tokens() {
+        assertThat(TransactionIndex.tokenize(null)).isEmpty();
+        assertThat(TransactionIndex.tokenize("  ")).isEmpty();
+    }
+}
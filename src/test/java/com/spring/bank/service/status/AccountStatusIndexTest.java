@@ -0,0 +1,136 @@
+package com.spring.bank.service.status;
+
+import com.spring.bank.exception.AccountClosedException;
+import com.spring.bank.model.Account;
+import com.spring.bank.model.AccountStatus;
+import com.spring.bank.model.Currency;
+import com.spring.bank.model.Frequency;
+import com.spring.bank.model.StandingOrder;
+import com.spring.bank.model.Transaction;
+import com.spring.bank.model.TransactionType;
+import com.spring.bank.service.AccountService;
+import com.spring.bank.service.StandingOrderService;
+import com.spring.bank.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+public class AccountStatusIndexTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private StandingOrderService standingOrderService;
+
+    @Autowired
+    private AccountStatusIndex accountStatusIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void when_account_closed_then_posting_rejected_and_balance_unchanged() {
+        Account account = closeAccount(accountService.save(createAccount()));
+
+        assertThat(accountStatusIndex.isClosed(account.getId())).isTrue();
+        assertThatThrownBy(() -> transactionService.post(account.getId(), createTransaction()))
+                .isInstanceOf(AccountClosedException.class);
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+
+    @Test
+    public void when_closed_by_another_instance_then_rejected_under_lock_and_indexed() {
+        Account account = accountService.save(createAccount());
+        jdbcTemplate.update("update account set account_status = 'CLOSED' where id = ?", account.getId());
+        assertThat(accountStatusIndex.isClosed(account.getId())).isFalse();
+
+        assertThatThrownBy(() -> transactionService.post(account.getId(), createTransaction()))
+                .isInstanceOf(AccountClosedException.class);
+        assertThat(accountStatusIndex.isClosed(account.getId())).isTrue();
+    }
+
+    @Test
+    public void when_closed_by_another_instance_then_picked_up_by_refresh() {
+        Account account = accountService.save(createAccount());
+        jdbcTemplate.update("update account set account_status = 'CLOSED', last_modified_date_time = ? where id = ?",
+                LocalDateTime.now(), account.getId());
+
+        accountStatusIndex.refresh();
+
+        assertThat(accountStatusIndex.isClosed(account.getId())).isTrue();
+    }
+
+    @Test
+    public void when_closed_account_reopened_then_rejected() {
+        Account account = closeAccount(accountService.save(createAccount()));
+        account.setAccountStatus(AccountStatus.ACTIVE);
+
+        assertThatThrownBy(() -> accountService.save(account)).isInstanceOf(AccountClosedException.class);
+        assertThat(accountService.findById(account.getId()).get().getAccountStatus()).isEqualTo(AccountStatus.CLOSED);
+    }
+
+    @Test
+    public void when_closed_account_saved_as_closed_then_rejected() {
+        Account account = closeAccount(accountService.save(createAccount()));
+        account.setName("renamed");
+
+        assertThatThrownBy(() -> accountService.save(account)).isInstanceOf(AccountClosedException.class);
+        assertThat(accountService.findById(account.getId()).get().getName()).isEqualTo("account name test");
+    }
+
+    @Test
+    public void when_posted_after_account_read_then_closing_keeps_balance() {
+        Account account = accountService.save(createAccount());
+        Account read = accountService.findById(account.getId()).get();
+        transactionService.post(account.getId(), createTransaction());
+
+        Account closed = accountService.close(read.getId()).get();
+
+        assertThat(closed.getAccountStatus()).isEqualTo(AccountStatus.CLOSED);
+        assertThat(accountService.findById(account.getId()).get().getBalance()).isEqualByComparingTo(BigDecimal.TEN);
+    }
+
+    @Test
+    public void when_account_closed_then_standing_order_rejected() {
+        Account account = closeAccount(accountService.save(createAccount()));
+        StandingOrder standingOrder = new StandingOrder();
+        standingOrder.setAmount(new BigDecimal("25"));
+        standingOrder.setTransactionType(TransactionType.DEBIT);
+        standingOrder.setCounterparty("Ionescu Marius");
+        standingOrder.setFrequency(Frequency.MONTHLY);
+        standingOrder.setNextExecution(LocalDateTime.now().plusDays(1));
+
+        assertThatThrownBy(() -> standingOrderService.create(account.getId(), standingOrder))
+                .isInstanceOf(AccountClosedException.class);
+    }
+
+    private Account closeAccount(Account account) {
+        return accountService.close(account.getId()).get();
+    }
+
+    private static Account createAccount() {
+        Account account = new Account();
+        account.setName("account name test");
+        account.setCurrency(Currency.EUR);
+        account.setCustomer("Cosmin");
+        account.setIban(UUID.randomUUID().toString());
+        return account;
+    }
+
+    private static Transaction createTransaction() {
+        return new Transaction(BigDecimal.TEN, TransactionType.CREDIT, "Ionescu Marius", "bank transfer", null);
+    }
+}